@@ -1,13 +1,43 @@
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 
+//alpha-beta with the linear estimate on the Negamax core. the tables below are shared by
+//every searcher
 public class AlphaBeta {
 
-    static int count = 0;  //counter to track how many positions we evaluated
+    static TranspositionTable tt = null;    //only consulted when --tt-size is given
+    static Tablebase tablebase = null;      //answers the root outright when --tablebase is given
+    static ValueTable values = null;        //answers the root by lookup when --value-table reaches maxDepth
+    static boolean pvs = false;             //--pvs
+    static int aspiration = 0;              //--aspiration, the half width of the root window
+    static boolean mtdf = false;            //--mtdf
+    static int lmr = 0;                     //--lmr, moves searched to full depth before reducing
+    static int lmrSafe = 2;                 //--lmr-safe
+
+    //a searcher of its own. orderingMode is null, "generator" or "heuristic", as for --ordering
+    public static Negamax searcher(int maxDepth, String orderingMode) {
+        Negamax search = new Negamax(maxDepth, Evaluator.LINEAR, Negamax.BOARD, true, true);
+        search.tt = tt;
+        if (orderingMode != null) search.ordering = new MoveOrdering(orderingMode.equals("heuristic"), maxDepth);
+        search.pvs = pvs;
+        search.aspiration = aspiration;
+        search.mtdf = mtdf;
+        search.lmr = lmr;
+        search.lmrSafe = lmrSafe;
+        return search;
+    }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 3) {                                    
-            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth>");
+        if (args.length < 3) {                                    
+            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth>"
+                    + " [--tt-size <entries>] [--tt-replace always|depth] [--tablebase <file>]"
+                    + " [--value-table <file>]"
+                    + " [--movetime-ms <ms>] [--ordering generator|heuristic]"
+                    + " [--pvs] [--aspiration <window> | --mtdf] [--lmr <moves> [--lmr-safe <squares>] [--lmr-verify]]"
+                    + " [--parallel <threads>] [--split-plies <plies>] [--threads <threads>] [--scaling]"
+                    + " [--batch [--workers <n>]] [--stats] [--move-table] [--make-unmake] [--race]"
+                    + " [--cache <file> [--cache-mb <mb>]]");
             return;
         }
 
@@ -15,191 +45,297 @@ public class AlphaBeta {
         String outputFile = args[1];                                 
         int maxDepth = Integer.parseInt(args[2]);               
 
+        int ttSize = 0;
+        long moveTimeMs = 0;
+        String orderingMode = null;
+        int threads = 0;
+        int splitPlies = 1;
+        int smpThreads = 0;
+        boolean scaling = false;
+        boolean lmrVerify = false;
+        boolean batch = false;
+        boolean json = false;
+        int workers = Runtime.getRuntime().availableProcessors();
+        String cacheFile = null;
+        int cacheMb = 0;                    //keep the file's size, or DiskCache.DEFAULT_MB for a new one
+        TranspositionTable.Replace ttReplace = TranspositionTable.Replace.DEPTH;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--tt-size") && i + 1 < args.length) {
+                ttSize = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--tt-replace") && i + 1 < args.length) {
+                ttReplace = TranspositionTable.Replace.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--tablebase") && i + 1 < args.length) {
+                tablebase = Tablebase.load(args[++i]);
+            } else if (args[i].equals("--value-table") && i + 1 < args.length) {
+                values = ValueTable.load(args[++i], ValueTable.LINEAR);
+            } else if (args[i].equals("--movetime-ms") && i + 1 < args.length) {
+                moveTimeMs = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--ordering") && i + 1 < args.length) {
+                orderingMode = args[++i];
+            } else if (args[i].equals("--pvs")) {
+                pvs = true;
+            } else if (args[i].equals("--aspiration") && i + 1 < args.length) {
+                aspiration = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--mtdf")) {
+                mtdf = true;
+            } else if (args[i].equals("--lmr") && i + 1 < args.length) {
+                lmr = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--lmr-safe") && i + 1 < args.length) {
+                lmrSafe = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--lmr-verify")) {
+                lmrVerify = true;
+            } else if (args[i].equals("--parallel") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--split-plies") && i + 1 < args.length) {
+                splitPlies = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                smpThreads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--scaling")) {
+                scaling = true;
+            } else if (args[i].equals("--batch")) {
+                batch = true;
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--stats")) {
+                json = true;
+            } else if (args[i].equals("--make-unmake")) {
+                MakeUnmake.setEnabled(true);
+            } else if (args[i].equals("--race")) {
+                Race.setEnabled(true);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheFile = args[++i];
+            } else if (args[i].equals("--cache-mb") && i + 1 < args.length) {
+                cacheMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--move-table")) {
+                Board.setMoveTable(MoveTable.build());
+                System.out.println(Board.table.report());
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+        if (threads > 0 && (ttSize > 0 || moveTimeMs > 0 || smpThreads > 0)) {
+            System.out.println("--parallel runs a fixed-depth search without a transposition table");
+            return;
+        }
+        if (aspiration > 0 && mtdf) {
+            System.out.println("--aspiration and --mtdf are two ways to pick the root window, choose one");
+            return;
+        }
+        if (threads > 0 && (aspiration > 0 || mtdf)) {
+            System.out.println("--parallel runs a fixed-depth search, --aspiration and --mtdf need iterative deepening");
+            return;
+        }
+        boolean windows = pvs || aspiration > 0 || mtdf;
+        if (MakeUnmake.enabled && (ttSize > 0 || moveTimeMs > 0 || orderingMode != null || threads > 0 || smpThreads > 0
+                || windows || lmr > 0)) {
+            System.out.println("--make-unmake runs a plain fixed-depth search without a table, ordering, windows,"
+                    + " reductions or threads");
+            return;
+        }
+        if (cacheFile != null && (ttSize > 0 || moveTimeMs > 0 || threads > 0 || smpThreads > 0 || aspiration > 0 || mtdf
+                || MakeUnmake.enabled || lmr > 0)) {
+            System.out.println("--cache keeps plain fixed-depth results, without a table, time limit, deepening, threads,"
+                    + " make/unmake or reductions");
+            return;
+        }
+        if (batch && (tablebase != null || values != null || moveTimeMs > 0 || threads > 0 || smpThreads > 0 || scaling)) {
+            System.out.println("--batch searches each board at a fixed depth on one thread, without a tablebase,"
+                    + " value table, time limit, threads or scaling");
+            return;
+        }
+        if (lmrVerify && (lmr == 0 || ttSize > 0 || moveTimeMs > 0 || threads > 0 || smpThreads > 0 || batch
+                || MakeUnmake.enabled)) {
+            System.out.println("--lmr-verify needs --lmr and compares plain fixed-depth searches of every input board,"
+                    + " without a table, time limit, threads, batch or make/unmake");
+            return;
+        }
+        if (lmrVerify) {
+            verifyLmr(readBoards(inputFile), maxDepth, orderingMode);
+            return;
+        }
+        if (cacheFile != null) DiskCache.shared = DiskCache.open(cacheFile, cacheMb);
+        if (smpThreads > 0 && ttSize == 0) ttSize = 1 << 17;        //the threads only talk through the table
+        tt = ttSize > 0 ? new TranspositionTable(ttSize, ttReplace) : null;
+
+        if (batch) {                                                 //one result line per input board
+            boolean detailed = json;
+            String ordering = orderingMode;
+            long evaluated = Batch.run(inputFile, outputFile, maxDepth, workers, (board, depth) -> {
+                SearchStats stats = searcher(depth, ordering).run("AlphaBeta", board, depth, Board.WHITE, detailed);
+                if (detailed) System.out.println(stats.toJson());
+                return stats.result();
+            });
+            System.out.println("Positions evaluated by static estimation: " + evaluated + ".");
+            if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+            return;
+        }
+
         BufferedReader reader = new BufferedReader(new FileReader(inputFile));
         String startBoard = reader.readLine().trim();               
         reader.close();
 
-        String bestBoard = startBoard;      //to store best board we find
+        long begin = System.nanoTime();
+        int start = Board.parse(startBoard);
+        int bestBoard = start;              //to store best board we find
         int bestScore = Integer.MIN_VALUE;  //stores best score found
+        int depth = maxDepth;               //deepest completed iteration when deepening
+        Negamax search = searcher(maxDepth, orderingMode);
+        if (json) search.stats = new SearchStats("AlphaBeta", maxDepth);
+        MoveOrdering ordering = search.ordering;
+        long nodes = 0;
+        long evaluated = 0;
+        long reSearches = 0;
+        long reductions = 0;
+        long reductionReSearches = 0;
+        long races = 0;
+        boolean lookup = values != null && maxDepth <= values.maxDepth;
 
-        if (maxDepth == 0) {                                         
-            bestScore = staticEst(startBoard);
-            count++;
+        if (tablebase != null) {                                     //solved, no search needed
+            if (maxDepth > 0) bestBoard = tablebase.bestMove(start, Board.WHITE, search.moves[maxDepth]);
+            bestScore = tablebase.score(start, Board.WHITE);
+        } else if (lookup) {                                         //precomputed at this depth
+            int[] result = values.search(start, Board.WHITE, maxDepth, search.moves[maxDepth]);
+            bestBoard = result[0];
+            bestScore = result[1];
+        } else if (maxDepth == 0) {                                         
+            bestScore = staticEst(start);
+            evaluated = 1;
+        } else if (threads > 0) {                                    //root split on a fork/join pool
+            ParallelSearch parallel = new ParallelSearch(threads, splitPlies, true, Evaluator.LINEAR, orderingMode);
+            parallel.stats = search.stats;
+            int[] result = parallel.searchRoot(start, maxDepth);
+            bestBoard = result[0];
+            bestScore = result[1];
+            ordering = parallel.ordering;
+            nodes = parallel.nodes.sum();
+            evaluated = parallel.evaluated.sum();
+            reSearches = parallel.reSearches.sum();
+            reductions = parallel.reductions.sum();
+            reductionReSearches = parallel.reductionReSearches.sum();
+            races = parallel.races.sum();
+            System.out.println(parallel.report());
+        } else if (smpThreads > 0) {                                 //lazy SMP over the shared table
+            LazySmp smp = new LazySmp(smpThreads, orderingMode);
+            smp.stats = search.stats;
+            int[] result = smp.search(start, maxDepth, moveTimeMs, true);
+            bestBoard = result[0];
+            bestScore = result[1];
+            depth = result[2];
+            ordering = smp.ordering;
+            nodes = smp.nodes;
+            evaluated = smp.evaluated;
+            reSearches = smp.reSearches;
+            reductions = smp.reductions;
+            reductionReSearches = smp.reductionReSearches;
+            races = smp.races;
+            System.out.println(smp.report());
+        } else if (MakeUnmake.enabled) {                             //one board mutated in place
+            MakeUnmake incremental = new MakeUnmake(maxDepth, Evaluator.LINEAR, true, true);
+            incremental.stats = search.stats;
+            int[] result = incremental.searchRoot(start, maxDepth, Board.WHITE);
+            bestBoard = result[0];
+            bestScore = result[1];
+            nodes = incremental.nodes;
+            evaluated = incremental.evaluated;
+            races = incremental.races;
         } else {
-            for (String nextBoard : whiteMoves(startBoard)) {    //generate all white moves
-                int score = MinMax(nextBoard, maxDepth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
-                if (score > bestScore) {                         //update if better
-                    bestScore = score;
-                    bestBoard = nextBoard;
-                }
-            }
+            boolean deepen = moveTimeMs > 0 || search.iterative();  //until the budget runs out, or to seed the windows
+            int[] result = deepen ? search.deepen(start, maxDepth, moveTimeMs, true) : search.searchRoot(start, maxDepth);
+            bestBoard = result[0];
+            bestScore = result[1];
+            if (deepen) depth = result[2];
+            nodes = search.nodes;
+            evaluated = search.evaluated;
+            reSearches = search.scoutReSearches + search.rootReSearches;
+            reductions = search.reductions;
+            reductionReSearches = search.reductionReSearches;
+            races = search.races;
         }
+        SearchStats stats = search.stats != null ? search.stats : new SearchStats("AlphaBeta");
+        stats.reSearches = reSearches;
+        stats.reductions = reductions;
+        stats.reductionReSearches = reductionReSearches;
+        stats.races = races;
+        stats.finish(start, bestBoard, bestScore, depth, nodes, evaluated, begin);
 
-        System.out.println("Board Position: " + bestBoard);         
-        System.out.println("Positions evaluated by static estimation: " + count + ".");
+        System.out.println("Board Position: " + Board.toString(bestBoard));         
+        System.out.println("Positions evaluated by static estimation: " + evaluated + ".");
+        if (tt != null) System.out.println(tt.report());
+        if (ordering != null) System.out.println(ordering.report());
+        if (windows) System.out.println("Re-searches: " + reSearches + ".");
+        if (lmr > 0) System.out.println("Reductions: " + reductions + ", re-searched: " + reductionReSearches + ".");
+        if (Race.enabled) System.out.println("Races solved: " + races + ".");
+        if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+        if (tablebase != null) System.out.println(tablebase.describe(start, Board.WHITE));
+        else if (lookup) System.out.println(values.describe());
         System.out.println("MINIMAX estimate: " + bestScore + ".");
+        if (json) System.out.println(stats.toJson());
 
         BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
-        writer.write(bestBoard);                                    
+        writer.write(Board.toString(bestBoard));                                    
         writer.newLine();
         writer.close();
-    }
-
-    public static int MaxMin(String board, int depth, int alpha, int beta) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        List<String> children = whiteMoves(board);
-        if (children.isEmpty()) {
-            count++;
-            return staticEst(board);
-        }
 
-        int v = Integer.MIN_VALUE;
-        for (String child : whiteMoves(board)) {
-            v = Math.max(v, MinMax(child, depth - 1, alpha, beta));
-            if (v >= beta) return v;  
-            alpha = Math.max(alpha, v);
-        }
-        return v;
+        if (scaling) LazySmp.scaling(start, maxDepth, Math.max(1, smpThreads), orderingMode);
     }
 
-    public static int MinMax(String board, int depth, int alpha, int beta) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        List<String> children = blackMoves(board);
-        if (children.isEmpty()) {
-            count++;
-            return staticEst(board);
-        }
-        int v = Integer.MAX_VALUE;
-        for (String child : blackMoves(board)) {
-            v = Math.min(v, MaxMin(child, depth - 1, alpha, beta));
-            if (v <= alpha) return v;  
-            beta = Math.min(beta, v);
+    //searches every board to maxDepth full width and with the --lmr reductions, and prints how
+    //often the reduced search picks another board or estimate and what it saved
+    static void verifyLmr(int[] boards, int maxDepth, String orderingMode) {
+        int reductionMoves = lmr;
+        long fullEvaluated = 0;
+        long reducedEvaluated = 0;
+        long reductions = 0;
+        long reSearches = 0;
+        int boardsDiffer = 0;
+        int scoresDiffer = 0;
+        for (int board : boards) {
+            lmr = 0;
+            SearchStats full = searcher(maxDepth, orderingMode).run("AlphaBeta", board, maxDepth, Board.WHITE, false);
+            lmr = reductionMoves;
+            SearchStats reduced = searcher(maxDepth, orderingMode).run("AlphaBeta", board, maxDepth, Board.WHITE, false);
+            fullEvaluated += full.leaves;
+            reducedEvaluated += reduced.leaves;
+            reductions += reduced.reductions;
+            reSearches += reduced.reductionReSearches;
+            if (full.bestBoard != reduced.bestBoard) boardsDiffer++;
+            if (full.score != reduced.score) scoresDiffer++;
         }
-        return v;
+        System.out.println("Boards: " + boards.length + " at depth " + maxDepth + ", the reduced search picks another board for "
+                + boardsDiffer + " (" + percent(boardsDiffer, boards.length) + ") and another estimate for "
+                + scoresDiffer + " (" + percent(scoresDiffer, boards.length) + ").");
+        System.out.println("Positions evaluated: " + fullEvaluated + " full width, " + reducedEvaluated + " reduced ("
+                + percent(reducedEvaluated, fullEvaluated) + ").");
+        System.out.println("Reductions: " + reductions + ", re-searched: " + reSearches + ".");
     }
 
-    public static boolean isGameOver(String board) {
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-        return (w1 == 9 || w2 == 9 || b1 == 0 || b2 == 0);
+    static String percent(long part, long whole) {
+        return String.format(Locale.ROOT, "%.1f%%", whole == 0 ? 0 : 100.0 * part / whole);
     }
 
-    public static int findPositionBlack(int w1, int w2, int b1, int b2) {
-        for (int i = 8; i > 4; i--) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for black");
+    static int[] readBoards(String file) throws IOException {
+        return Files.readAllLines(Paths.get(file)).stream()
+                .map(String::trim).filter(line -> !line.isEmpty()).mapToInt(Board::parse).toArray();
     }
 
-    public static int findPositionWhite(int w1, int w2, int b1, int b2) {
-        for (int i = 1; i < 5; i++) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for white");
+    //a plain fixed-depth search with a searcher of its own, returns {best board, score, positions evaluated}
+    public static int[] analyze(int start, int maxDepth) {
+        return search(start, maxDepth, false).result();
     }
 
-    public static List<String> whiteMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (w1 != 9) {
-            if (w1 == 8) {
-                moves.add("9" + w2 + b1 + b2);
-            } else if (w1 + 1 != b1 && w1 + 1 != b2 && w1 + 1 != w2) {
-                moves.add((w1 + 1) + "" + w2 + b1 + b2);
-            } else if ((w1 + 2 != b1 && w1 + 2 != b2 && w1 + 2 != w2) || w1 + 2 == 9) {
-                int newW1 = w1 + 2;
-                if (w1 + 1 == b1) {
-                    int jumped = findPositionBlack(newW1, w2, 10, b2);
-                    if (newW1 != jumped && newW1 != b2 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + jumped + b2);
-                    }
-                } else if (w1 + 1 == b2) {
-                    int jumped = findPositionBlack(newW1, w2, b1, 10);
-                    if (newW1 != jumped && newW1 != b1 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-
-        if (w2 != 9) {
-            if (w2 == 8) {
-                moves.add(w1 + "9" + b1 + b2);
-            } else if (w2 + 1 != w1 && w2 + 1 != b1 && w2 + 1 != b2) {
-                moves.add(w1 + "" + (w2 + 1) + b1 + b2);
-            } else if ((w2 + 2 != w1 && w2 + 2 != b1 && w2 + 2 != b2) || w2 + 2 == 9) {
-                int newW2 = w2 + 2;
-                if (w2 + 1 == b1) {
-                    int jumped = findPositionBlack(w1, newW2, 10, b2);
-                    if (newW2 != jumped && newW2 != b2 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + jumped + b2);
-                    }
-                } else if (w2 + 1 == b2) {
-                    int jumped = findPositionBlack(w1, newW2, b1, 10);
-                    if (newW2 != jumped && newW2 != b1 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-        return moves;
+    //the same search, returning what it did. detailed also counts interior nodes, cutoffs per
+    //ply and table probes, which costs a little on every node
+    public static SearchStats search(int start, int maxDepth, boolean detailed) {
+        return search(start, maxDepth, Board.WHITE, detailed);
     }
 
-    public static List<String> blackMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (b1 != 0) {
-            if (b1 == 1) {
-                moves.add("" + w1 + w2 + "0" + b2);
-            } else if (b1 - 1 != w1 && b1 - 1 != w2 && b1 - 1 != b2) {
-                moves.add("" + w1 + w2 + (b1 - 1) + b2);
-            } else if ((b1 - 2 != w1 && b1 - 2 != w2 && b1 - 2 != b2) || b1 - 2 == 0) {
-                int newB1 = b1 - 2;
-                if (b1 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b1 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + newB1 + b2);
-            }
-        }
-
-        if (b2 != 0) {
-            if (b2 == 1) {
-                moves.add("" + w1 + w2 + b1 + "0");
-            } else if (b2 - 1 != w1 && b2 - 1 != w2 && b2 - 1 != b1) {
-                moves.add("" + w1 + w2 + b1 + (b2 - 1));
-            } else if ((b2 - 2 != w1 && b2 - 2 != w2 && b2 - 2 != b1) || b2 - 2 == 0) {
-                int newB2 = b2 - 2;
-                if (b2 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b2 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + b1 + newB2);
-            }
-        }
-        return moves;
+    //the same with either side to move. black picks the child with the lowest score
+    public static SearchStats search(int start, int maxDepth, int side, boolean detailed) {
+        return searcher(maxDepth, null).run("AlphaBeta", start, maxDepth, side, detailed);
     }
 
-    public static int staticEst(String board) {
-        int white1 = Character.getNumericValue(board.charAt(0));
-        int white2 = Character.getNumericValue(board.charAt(1));
-        int black1 = Character.getNumericValue(board.charAt(2));
-        int black2 = Character.getNumericValue(board.charAt(3));
-
-        if (white1 == 9 && white2 == 9) return 100;              //white wins
-        if (black1 == 0 && black2 == 0) return -100;             //black wins
-        return white1 + white2 + black1 + black2 - 18;           
+    public static int staticEst(int board) {
+        return Board.staticEst(board);
     }
 }
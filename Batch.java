@@ -0,0 +1,66 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+//runs one engine over every board of an input file, one board per line, on a fixed pool of
+//workers. at most a few boards per worker are in flight at once, so memory stays bounded
+//however long the file is, and results are written in input order as
+//"<best board> <score> <positions evaluated>"
+public class Batch {
+
+    interface Engine {
+        int[] analyze(int board, int depth);  //{best board, score, positions evaluated}
+    }
+
+    //returns the positions evaluated over the whole file
+    public static long run(String inputFile, String outputFile, int depth, int workers, Engine engine)
+            throws IOException {
+        LongAdder evaluated = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        int window = workers * 4;
+        ArrayDeque<Future<String>> inFlight = new ArrayDeque<>();
+        long boards = 0;
+        long begin = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
+             BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (inFlight.size() == window) write(writer, inFlight.poll());
+                String board = line.trim();
+                inFlight.add(pool.submit(() -> analyze(board, depth, engine, evaluated)));
+                boards++;
+            }
+            while (!inFlight.isEmpty()) write(writer, inFlight.poll());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println("Boards analyzed: " + boards + " in " + elapsed + " ms.");
+        return evaluated.sum();
+    }
+
+    static String analyze(String board, int depth, Engine engine, LongAdder evaluated) {
+        if (board.isEmpty()) return "";
+        int[] result = engine.analyze(Board.parse(board), depth);
+        evaluated.add(result[2]);
+        return Board.toString(result[0]) + " " + result[1] + " " + result[2];
+    }
+
+    //waits for the oldest board; one that fails gets an error line instead of ending the batch
+    static void write(BufferedWriter writer, Future<String> result) throws IOException {
+        String line;
+        try {
+            line = result.get();
+        } catch (ExecutionException e) {
+            line = "error: " + e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        }
+        writer.write(line);
+        writer.newLine();
+    }
+}
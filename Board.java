@@ -0,0 +1,226 @@
+import java.util.*;
+
+//boards packed into an int, one nibble per piece: w1 w2 b1 b2 from the high nibble down,
+//so "2456" is 0x2456. move generation writes children into caller-owned int[] buffers
+//so the search never builds a String or a List once it is running
+public class Board {
+
+    static final int MAX_MOVES = 2;  //each side moves one of its two pieces
+    static final int COUNT = 10000;  //boards with every piece on 0-9, see id()
+    static final int CANONICAL_COUNT = 5500;  //boards with w1 <= w2, see canonicalId()
+
+    static final int WHITE = 0;  //side to move
+    static final int BLACK = 1;
+
+    static MoveTable table = null;  //when set, whiteMoves and blackMoves read children from it
+
+    public static int pack(int w1, int w2, int b1, int b2) {
+        return (w1 << 12) | (w2 << 8) | (b1 << 4) | b2;
+    }
+
+    public static int w1(int board) { return (board >>> 12) & 0xF; }
+    public static int w2(int board) { return (board >>> 8) & 0xF; }
+    public static int b1(int board) { return (board >>> 4) & 0xF; }
+    public static int b2(int board) { return board & 0xF; }
+
+    public static int parse(String board) {
+        return pack(Character.getNumericValue(board.charAt(0)),
+                    Character.getNumericValue(board.charAt(1)),
+                    Character.getNumericValue(board.charAt(2)),
+                    Character.getNumericValue(board.charAt(3)));
+    }
+
+    //dense index 0-9999, the board read as a decimal number
+    public static int id(int board) {
+        return w1(board) * 1000 + w2(board) * 100 + b1(board) * 10 + b2(board);
+    }
+
+    public static int fromId(int id) {
+        return pack(id / 1000, id / 100 % 10, id / 10 % 10, id % 10);
+    }
+
+    //the two white pieces are interchangeable: both generators and both evaluators treat
+    //them alike, so a board and its white swap have the same children, swapped, and the
+    //same value at every depth. the black pieces are not, because blackMoves moves the
+    //white pieces a jumping b1 displaces before it moves b2
+    public static int swapWhite(int board) {
+        return pack(w2(board), w1(board), b1(board), b2(board));
+    }
+
+    //the representative of board and its white swap, the one with w1 <= w2
+    public static int canonical(int board) {
+        return w1(board) <= w2(board) ? board : swapWhite(board);
+    }
+
+    //dense index 0-5499 of the canonical form: 55 white pairs, then b1 b2 as decimal digits
+    public static int canonicalId(int board) {
+        int lo = Math.min(w1(board), w2(board));
+        int hi = Math.max(w1(board), w2(board));
+        return (lo * (21 - lo) / 2 + hi - lo) * 100 + b1(board) * 10 + b2(board);
+    }
+
+    public static int fromCanonicalId(int id) {
+        int pair = id / 100;
+        int lo = 0;
+        while ((lo + 1) * (20 - lo) / 2 <= pair) lo++;
+        int hi = lo + pair - lo * (21 - lo) / 2;
+        return pack(lo, hi, id / 10 % 10, id % 10);
+    }
+
+    public static String toString(int board) {
+        return "" + w1(board) + w2(board) + b1(board) + b2(board);
+    }
+
+    //one move buffer per remaining depth, so a search indexes them by its depth argument
+    public static int[][] plyBuffers(int maxDepth) {
+        return new int[maxDepth + 1][MAX_MOVES];
+    }
+
+    public static boolean isGameOver(int board) {
+        return (w1(board) == 9 || w2(board) == 9 || b1(board) == 0 || b2(board) == 0);
+    }
+
+    public static int findPositionBlack(int w1, int w2, int b1, int b2) {
+        for (int i = 8; i > 4; i--) {
+            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
+        }
+        throw new IllegalStateException("No spot for black");
+    }
+
+    public static int findPositionWhite(int w1, int w2, int b1, int b2) {
+        for (int i = 1; i < 5; i++) {
+            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
+        }
+        throw new IllegalStateException("No spot for white");
+    }
+
+    //writes the white children of board into moves and returns how many there are
+    public static int whiteMoves(int board, int[] moves) {
+        if (table != null) return table.moves(board, WHITE, moves);
+        return generateWhite(board, moves);
+    }
+
+    //writes the black children of board into moves and returns how many there are
+    public static int blackMoves(int board, int[] moves) {
+        if (table != null) return table.moves(board, BLACK, moves);
+        return generateBlack(board, moves);
+    }
+
+    public static void setMoveTable(MoveTable moveTable) {
+        table = moveTable;
+    }
+
+    //the generators behind whiteMoves and blackMoves, always computed from the board
+    public static int generateWhite(int board, int[] moves) {
+        int n = 0;
+        int w1 = w1(board);
+        int w2 = w2(board);
+        int b1 = b1(board);
+        int b2 = b2(board);
+
+        if (w1 != 9) {
+            if (w1 == 8) {
+                moves[n++] = pack(9, w2, b1, b2);
+            } else if (w1 + 1 != b1 && w1 + 1 != b2 && w1 + 1 != w2) {
+                moves[n++] = pack(w1 + 1, w2, b1, b2);
+            } else if ((w1 + 2 != b1 && w1 + 2 != b2 && w1 + 2 != w2) || w1 + 2 == 9) {
+                int newW1 = w1 + 2;
+                if (w1 + 1 == b1) {
+                    int jumped = findPositionBlack(newW1, w2, 10, b2);
+                    if (newW1 != jumped && newW1 != b2 && newW1 != w2) {
+                        moves[n++] = pack(newW1, w2, jumped, b2);
+                    }
+                } else if (w1 + 1 == b2) {
+                    int jumped = findPositionBlack(newW1, w2, b1, 10);
+                    if (newW1 != jumped && newW1 != b1 && newW1 != w2) {
+                        moves[n++] = pack(newW1, w2, b1, jumped);
+                    }
+                }
+            }
+        }
+
+        if (w2 != 9) {
+            if (w2 == 8) {
+                moves[n++] = pack(w1, 9, b1, b2);
+            } else if (w2 + 1 != w1 && w2 + 1 != b1 && w2 + 1 != b2) {
+                moves[n++] = pack(w1, w2 + 1, b1, b2);
+            } else if ((w2 + 2 != w1 && w2 + 2 != b1 && w2 + 2 != b2) || w2 + 2 == 9) {
+                int newW2 = w2 + 2;
+                if (w2 + 1 == b1) {
+                    int jumped = findPositionBlack(w1, newW2, 10, b2);
+                    if (newW2 != jumped && newW2 != b2 && newW2 != w1) {
+                        moves[n++] = pack(w1, newW2, jumped, b2);
+                    }
+                } else if (w2 + 1 == b2) {
+                    int jumped = findPositionBlack(w1, newW2, b1, 10);
+                    if (newW2 != jumped && newW2 != b1 && newW2 != w1) {
+                        moves[n++] = pack(w1, newW2, b1, jumped);
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    public static int generateBlack(int board, int[] moves) {
+        int n = 0;
+        int w1 = w1(board);
+        int w2 = w2(board);
+        int b1 = b1(board);
+        int b2 = b2(board);
+
+        if (b1 != 0) {
+            if (b1 == 1) {
+                moves[n++] = pack(w1, w2, 0, b2);
+            } else if (b1 - 1 != w1 && b1 - 1 != w2 && b1 - 1 != b2) {
+                moves[n++] = pack(w1, w2, b1 - 1, b2);
+            } else if ((b1 - 2 != w1 && b1 - 2 != w2 && b1 - 2 != b2) || b1 - 2 == 0) {
+                int newB1 = b1 - 2;
+                if (b1 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
+                if (b1 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
+                moves[n++] = pack(w1, w2, newB1, b2);
+            }
+        }
+
+        if (b2 != 0) {
+            if (b2 == 1) {
+                moves[n++] = pack(w1, w2, b1, 0);
+            } else if (b2 - 1 != w1 && b2 - 1 != w2 && b2 - 1 != b1) {
+                moves[n++] = pack(w1, w2, b1, b2 - 1);
+            } else if ((b2 - 2 != w1 && b2 - 2 != w2 && b2 - 2 != b1) || b2 - 2 == 0) {
+                int newB2 = b2 - 2;
+                if (b2 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
+                if (b2 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
+                moves[n++] = pack(w1, w2, b1, newB2);
+            }
+        }
+        return n;
+    }
+
+    public static List<String> whiteMoves(String board) {
+        int[] moves = new int[MAX_MOVES];
+        return toList(moves, whiteMoves(parse(board), moves));
+    }
+
+    public static List<String> blackMoves(String board) {
+        int[] moves = new int[MAX_MOVES];
+        return toList(moves, blackMoves(parse(board), moves));
+    }
+
+    private static List<String> toList(int[] moves, int n) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) list.add(toString(moves[i]));
+        return list;
+    }
+
+    public static int staticEst(int board) {
+        int white1 = w1(board);
+        int white2 = w2(board);
+        int black1 = b1(board);
+        int black2 = b2(board);
+
+        if (white1 == 9 && white2 == 9) return 100;              //white wins
+        if (black1 == 0 && black2 == 0) return -100;             //black wins
+        return white1 + white2 + black1 + black2 - 18;
+    }
+}
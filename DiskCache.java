@@ -0,0 +1,208 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+//root results kept in a memory-mapped file between runs: the best board and score of a plain
+//fixed-depth search, keyed on the board, side, depth and evaluator. the file is a
+//header and buckets of four slots; each slot is two longs, the entry xor its key and the
+//entry, as in the TranspositionTable. so any number of processes can read and write it
+//without locks, and a slot torn by two writers reads as a miss. a full bucket evicts its
+//shallowest entry, so the cheapest search is the one redone. the header carries a
+//fingerprint of both evaluators and the generators over every board, and a file whose header
+//does not match is replaced, so a changed evaluator never answers from old scores
+public class DiskCache {
+
+    static final int MAGIC = 0x4A4D4443;  //"JMDC"
+    static final int VERSION = 1;
+    static final int HEADER = 64;         //magic, version, bucket count, fingerprint, padding to a bucket
+    static final int SLOTS = 4;           //slots per bucket, 64 bytes
+    static final int BUCKET = SLOTS * 16;
+    static final int DEFAULT_MB = 64;     //size of a new file when none is asked for
+    static final int MAX_DEPTH = 0xFFFF;  //the key's depth field, deeper searches are not cached
+
+    static DiskCache shared = null;       //opened by --cache, used by every Negamax searcher
+
+    final String file;
+    final MappedByteBuffer data;
+    final int mask;                       //bucket count - 1
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder stores = new LongAdder();
+
+    DiskCache(String file, MappedByteBuffer data, int buckets) {
+        this.file = file;
+        this.data = data;
+        this.mask = buckets - 1;
+    }
+
+    //how full the file is, by depth
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("needs 1 arg: <cache file>");
+            return;
+        }
+        DiskCache cache = open(args[0], 0);  //an empty file if there was none
+        long[] byDepth = new long[MAX_DEPTH + 1];
+        long used = 0;
+        for (int i = 0; i <= cache.mask; i++) {
+            for (int s = 0; s < SLOTS; s++) {
+                int at = HEADER + i * BUCKET + s * 16;
+                long key = cache.data.getLong(at) ^ cache.data.getLong(at + 8);
+                if (key == 0) continue;
+                used++;
+                byDepth[depth(key)]++;
+            }
+        }
+        System.out.println(cache.file + ": " + used + " of " + (cache.mask + 1L) * SLOTS + " slots used.");
+        for (int d = 0; d < byDepth.length; d++) {
+            if (byDepth[d] > 0) System.out.println("Depth " + d + ": " + byDepth[d] + " entries.");
+        }
+    }
+
+    //maps file, replacing it when its header is not this version with this fingerprint.
+    //megabytes caps the size, rounded down to a power of two buckets, and a file of another
+    //size starts over at that size; 0 keeps an existing file's size
+    public static DiskCache open(String file, int megabytes) throws IOException {
+        long fingerprint = fingerprint();
+        Path path = Paths.get(file);
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                int buckets = buckets(channel, fingerprint);
+                //after a replace, another process may have renamed its own file in; any good one will do
+                if (buckets > 0 && (megabytes == 0 || buckets == buckets(megabytes) || attempt > 0)) {
+                    MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) buckets * BUCKET);
+                    return new DiskCache(file, data, buckets);
+                }
+            } catch (NoSuchFileException e) {
+                //no file yet
+            }
+            replace(path, buckets(megabytes > 0 ? megabytes : DEFAULT_MB), fingerprint);
+        }
+        throw new IOException("Cache file " + file + " keeps changing under us");
+    }
+
+    //the bucket count in channel's header, or 0 when it is another version, fingerprint or size
+    static int buckets(FileChannel channel, long fingerprint) throws IOException {
+        if (channel.size() < HEADER) return 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        channel.read(header, 0);
+        if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getLong(16) == fingerprint
+                && channel.size() == HEADER + (long) header.getInt(8) * BUCKET) {
+            return header.getInt(8);
+        }
+        return 0;
+    }
+
+    //builds an empty file beside path and renames it over path in one step. the file is never
+    //truncated in place, so a process that still has the old one mapped keeps a whole file (its
+    //later stores are lost with it) instead of faulting on pages that are gone
+    static void replace(Path path, int buckets, long fingerprint) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, buckets).putLong(16, fingerprint);
+                channel.write(header, 0);
+                channel.write(ByteBuffer.allocate(1), HEADER + (long) buckets * BUCKET - 1);  //sparse zeros
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static int buckets(int megabytes) {
+        long bytes = Math.min((long) megabytes << 20, Integer.MAX_VALUE - HEADER);
+        return Integer.highestOneBit((int) Math.max(1, bytes / BUCKET));
+    }
+
+    //a hash of every board's estimate under both evaluators and every board's children for
+    //both sides, so changing any of them invalidates the file
+    static long fingerprint() {
+        long h = 0xcbf29ce484222325L;
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int id = 0; id < Board.COUNT; id++) {
+            int board = Board.fromId(id);
+            h = (h ^ Evaluator.LINEAR.estimate(board)) * 0x100000001b3L;
+            h = (h ^ Evaluator.QUADRATIC.estimate(board)) * 0x100000001b3L;
+            int n = Board.generateWhite(board, moves);
+            for (int i = 0; i < n; i++) h = (h ^ moves[i]) * 0x100000001b3L;
+            n = Board.generateBlack(board, moves);
+            for (int i = 0; i < n; i++) h = (h ^ ~moves[i]) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    //evaluator is ValueTable.LINEAR or QUADRATIC and depth at most MAX_DEPTH, in the 16 bits
+    //below it. the top bit keeps a real key from matching an empty slot. not the canonical board: a board and its white swap have the
+    //same score, but the first child reaching it can differ and the search reports the first
+    static long key(int board, int side, int depth, int evaluator) {
+        return 1L << 63 | (long) evaluator << 40 | (long) depth << 24 | (long) side << 16 | board;
+    }
+
+    static int depth(long key) {
+        return (int) (key >>> 24) & MAX_DEPTH;
+    }
+
+    static long entry(int bestMove, int score) {
+        return (long) bestMove << 32 | (score & 0xFFFFFFFFL);
+    }
+
+    private int bucket(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return HEADER + (int) ((h >>> 32) & mask) * BUCKET;
+    }
+
+    //{best board, score} of a search from board, or null
+    public int[] get(int board, int side, int depth, int evaluator) {
+        if (depth > MAX_DEPTH) return null;
+        long key = key(board, side, depth, evaluator);
+        int at = bucket(key);
+        for (int s = 0; s < SLOTS; s++, at += 16) {
+            long entry = data.getLong(at + 8);
+            if ((data.getLong(at) ^ entry) == key) {
+                hits.increment();
+                return new int[] {(int) (entry >>> 32), (int) entry};
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(int board, int side, int depth, int evaluator, int bestBoard, int score) {
+        if (depth > MAX_DEPTH) return;
+        long key = key(board, side, depth, evaluator);
+        int first = bucket(key);
+        int victim = first;
+        int shallowest = Integer.MAX_VALUE;
+        for (int s = 0, at = first; s < SLOTS; s++, at += 16) {
+            long old = data.getLong(at) ^ data.getLong(at + 8);
+            if (old == key || old == 0) {
+                victim = at;
+                break;
+            }
+            if (depth(old) < shallowest) {
+                shallowest = depth(old);
+                victim = at;
+            }
+        }
+        long entry = entry(bestBoard, score);
+        data.putLong(victim, entry ^ key);
+        data.putLong(victim + 8, entry);
+        stores.increment();
+    }
+
+    public double hitRate() {
+        long h = hits.sum(), probes = h + misses.sum();
+        return probes == 0 ? 0 : (double) h / probes;
+    }
+
+    public String report() {
+        return "Disk cache: " + hits.sum() + " hits, " + misses.sum() + " misses, hit rate "
+                + String.format(Locale.ROOT, "%.4f", hitRate()) + ", " + stores.sum() + " stored in " + file + ".";
+    }
+}
@@ -0,0 +1,9 @@
+//a static estimate of a board from white's point of view, higher is better for white. the
+//search core negates it for black, so an evaluator never needs to know the side to move
+public interface Evaluator {
+
+    Evaluator LINEAR = Board::staticEst;               //MiniMax and AlphaBeta
+    Evaluator QUADRATIC = MiniMaxImproved::staticEst;  //MiniMaxImproved and MiniMaxBlack, decided boards are MIN/MAX_VALUE
+
+    int estimate(int board);
+}
@@ -0,0 +1,95 @@
+//lazy SMP: every thread runs the same iterative deepening from the same root and they share
+//nothing but the transposition table. odd helpers search one ply past each iteration and
+//helpers 2, 3, 6, 7, ... try the root moves in reverse, so they fill the table with entries
+//the main thread is about to need. only the main thread's result is used
+public class LazySmp {
+
+    final int threads;
+    final String orderingMode;
+    final MoveOrdering ordering;  //cutoff counts of every thread's searcher, or null
+    long nodes = 0;               //all threads, last search
+    long evaluated = 0;
+    long reSearches = 0;
+    long reductions = 0;
+    long reductionReSearches = 0;
+    long races = 0;
+    SearchStats stats = null;     //every thread's counts, only kept for --stats
+    long elapsedNanos = 0;        //until the main thread finished
+    int depth = 0;                //deepest iteration the main thread completed
+
+    public LazySmp(int threads, String orderingMode) {
+        this.threads = Math.max(1, threads);
+        this.orderingMode = orderingMode;
+        this.ordering = orderingMode == null ? null : new MoveOrdering(false, 0);
+    }
+
+    //returns {best board, score, depth} of the main thread
+    public int[] search(int start, int maxDepth, long moveTimeMs, boolean verbose) {
+        Negamax[] searchers = new Negamax[threads];
+        Thread[] helpers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = AlphaBeta.searcher(maxDepth, orderingMode);
+            if (stats != null) searchers[i].stats = new SearchStats("AlphaBeta", maxDepth);
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 1; i < threads; i++) {
+            Negamax helper = searchers[i];
+            helper.depthOffset = i & 1;
+            helper.reverseRoot = (i & 2) != 0;
+            helpers[i] = new Thread(() -> helper.deepen(start, maxDepth, 0, false), "lazy-smp-" + i);
+            helpers[i].start();
+        }
+        int[] result = searchers[0].deepen(start, maxDepth, moveTimeMs, verbose);
+        elapsedNanos = System.nanoTime() - begin;
+
+        for (int i = 1; i < threads; i++) searchers[i].stop = true;
+        for (int i = 1; i < threads; i++) {
+            try {
+                helpers[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        nodes = 0;
+        evaluated = 0;
+        reSearches = 0;
+        reductions = 0;
+        reductionReSearches = 0;
+        races = 0;
+        for (Negamax s : searchers) {
+            nodes += s.nodes;
+            evaluated += s.evaluated;
+            reSearches += s.scoutReSearches + s.rootReSearches;
+            reductions += s.reductions;
+            reductionReSearches += s.reductionReSearches;
+            races += s.races;
+            if (stats != null) stats.add(s.stats, 0);
+            if (ordering != null) ordering.add(s.ordering);
+        }
+        depth = result[2];
+        return result;
+    }
+
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    public String report() {
+        return "Lazy SMP: " + threads + " threads, " + nodes + " nodes, " + nodesPerSecond() + " nodes/s.";
+    }
+
+    //time to depth and nodes per second for 1..maxThreads threads, each from an empty table
+    public static void scaling(int start, int maxDepth, int maxThreads, String orderingMode) {
+        TranspositionTable shared = AlphaBeta.tt;
+        if (shared == null) AlphaBeta.tt = new TranspositionTable(1 << 17, TranspositionTable.Replace.DEPTH);
+        for (int t = 1; t <= maxThreads; t++) {
+            AlphaBeta.tt.clear();
+            LazySmp smp = new LazySmp(t, orderingMode);
+            smp.search(start, maxDepth, 0, false);
+            System.out.println("Threads " + t + ": depth " + smp.depth + " in " + smp.elapsedNanos / 1_000_000
+                    + " ms, " + smp.nodes + " nodes, " + smp.nodesPerSecond() + " nodes/s.");
+        }
+        AlphaBeta.tt = shared;
+    }
+}
@@ -0,0 +1,504 @@
+import java.util.SplittableRandom;
+
+//the game on a line of any length up to 64 squares with up to 8 pieces a side. white moves up
+//from square 0 to its home at squares - 1 and black down to its home at 0. a board is the
+//squares of the white pieces then the black pieces, one byte each, at an offset in a byte[],
+//and children are written back to back into a caller-owned buffer, so a search allocates
+//nothing. occupancy is a long per colour with one bit per square, so a free square is a mask
+//test and the square a jumped piece is sent back to is the highest or lowest clear bit of its
+//half; the search carries both masks down with each child, as it does the key.
+//the rules are Board's, generalised: a piece steps forward onto a free square, or jumps a
+//piece ahead of it; white only jumps black, landing on a free square, and sends the jumped
+//piece to the highest free square of black's half. black jumps either colour, and a jumped
+//white goes to the lowest free square of white's half. as in Board.generateBlack, a white
+//piece displaced by one black jump stays displaced in the children of later black pieces.
+//CLASSIC, the 10 square game with two pieces a side, gives exactly Board's children in
+//Board's order, so its searches match AlphaBeta's. a board's Zobrist key is the xor of one
+//random long per (piece, square), and the generators can write each child's key next to it,
+//changed only by the pieces that moved, so a search never hashes a whole board
+public class LineBoard {
+
+    static final LineBoard CLASSIC = new LineBoard(10, 2);
+
+    final int squares;
+    final int pieces;           //per side
+    final int size;             //bytes per board, white pieces then black
+    final int home;             //white's home square, black's is 0
+    final int win;              //estimate once one side has every piece home
+    final long whiteHalf;       //squares a jumped white piece can be sent to, 1 .. squares / 2 - 1.
+                                //the constructor makes it hold all 2 * pieces, so a free one is always left
+    final long blackHalf;       //and a jumped black piece, squares / 2 .. squares - 2
+    final long[][] zobrist;     //[piece][square], the same for every run
+
+    public LineBoard(int squares, int pieces) {
+        if (squares < 6 || squares > 64) throw new IllegalArgumentException("squares is 6 to 64, got " + squares);
+        if (pieces < 1 || pieces > 8 || 2 * pieces > squares / 2 - 1) {
+            throw new IllegalArgumentException("pieces is 1 to 8 and each half, squares / 2 - 1, holds 2 * pieces, got "
+                    + pieces + " on " + squares);
+        }
+        this.squares = squares;
+        this.pieces = pieces;
+        this.size = 2 * pieces;
+        this.home = squares - 1;
+        this.win = Math.max(100, pieces * home + 1);
+        this.whiteHalf = range(1, squares / 2 - 1);
+        this.blackHalf = range(squares / 2, squares - 2);
+        SplittableRandom random = new SplittableRandom(squares * 64L + pieces);
+        this.zobrist = new long[size][squares];
+        for (long[] piece : zobrist) {
+            for (int sq = 0; sq < squares; sq++) piece[sq] = random.nextLong();
+        }
+    }
+
+    static long range(int from, int to) {
+        return (-1L >>> (63 - to)) & (-1L << from);
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 1 && args[0].equals("verify")) {
+            verify();
+            return;
+        }
+        if (args.length < 3) {
+            System.out.println("needs 3 args: <squares> <pieces> <maxDepth> [board] [--keys none|incremental|scratch|check],"
+                    + " or verify. a board lists the white then the black squares, comma separated");
+            return;
+        }
+        LineBoard game = new LineBoard(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        int maxDepth = Integer.parseInt(args[2]);
+        byte[] start = game.start();
+        int keys = Search.NO_KEYS;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--keys") && i + 1 < args.length) {
+                keys = Search.keys(args[++i]);
+            } else if (!args[i].startsWith("--")) {
+                start = game.parse(args[i]);
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        long begin = System.nanoTime();
+        Search search = game.new Search(maxDepth, keys);
+        byte[] best = search.searchRoot(start, maxDepth);
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+
+        System.out.println("Board Position: " + game.toString(best, 0));
+        System.out.println("Positions evaluated by static estimation: " + search.evaluated + ".");
+        System.out.println("MINIMAX estimate: " + search.score + ".");
+        System.out.println("Search took " + elapsed + " ms, " + search.nodes + " nodes.");
+        if (keys == Search.CHECK) {
+            System.out.println("Keys: " + search.nodes + " nodes checked, "
+                    + (search.mismatches == 0 ? "every incremental key and occupancy matches." : search.mismatches + " differ."));
+        }
+    }
+
+    //a search from the start position for the benchmarks, returns the nodes searched
+    public static long benchmark(int squares, int pieces, int depth, int keys) {
+        LineBoard game = new LineBoard(squares, pieces);
+        Search search = game.new Search(depth, keys);
+        search.searchRoot(game.start(), depth);
+        return search.nodes;
+    }
+
+    //white on the first squares, black on the last ones
+    public byte[] start() {
+        byte[] board = new byte[size];
+        for (int i = 0; i < pieces; i++) {
+            board[i] = (byte) i;
+            board[pieces + i] = (byte) (squares - pieces + i);
+        }
+        return board;
+    }
+
+    //"w1,...,b1,...", or the four digits of a Board string on the classic board
+    public byte[] parse(String text) {
+        String[] parts = text.contains(",") ? text.split(",") : text.split("");
+        if (parts.length != size) throw new IllegalArgumentException("a board has " + size + " squares, got " + text);
+        byte[] board = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int square = Integer.parseInt(parts[i].trim());
+            if (square < 0 || square > home) throw new IllegalArgumentException("no square " + square + " in " + text);
+            board[i] = (byte) square;
+        }
+        return board;
+    }
+
+    public String toString(byte[] board, int at) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && squares > 10) sb.append(',');
+            sb.append(board[at + i]);
+        }
+        return sb.toString();
+    }
+
+    //the classic board as Board packs it, and back
+    public static int pack(byte[] board, int at) {
+        return Board.pack(board[at], board[at + 1], board[at + 2], board[at + 3]);
+    }
+
+    public static byte[] unpack(int board) {
+        return new byte[] {(byte) Board.w1(board), (byte) Board.w2(board), (byte) Board.b1(board), (byte) Board.b2(board)};
+    }
+
+    //the Zobrist key from scratch
+    public long key(byte[] board, int at) {
+        long key = 0;
+        for (int i = 0; i < size; i++) key ^= zobrist[i][board[at + i]];
+        return key;
+    }
+
+    public boolean isGameOver(byte[] board, int at) {
+        for (int i = 0; i < pieces; i++) {
+            if (board[at + i] == home || board[at + pieces + i] == 0) return true;
+        }
+        return false;
+    }
+
+    //Board.staticEst: the sum of the squares, centred on 0, or +-win once a side is home
+    public int estimate(byte[] board, int at) {
+        int sum = 0;
+        boolean whiteHome = true;
+        boolean blackHome = true;
+        for (int i = 0; i < pieces; i++) {
+            sum += board[at + i] + board[at + pieces + i];
+            whiteHome &= board[at + i] == home;
+            blackHome &= board[at + pieces + i] == 0;
+        }
+        if (whiteHome) return win;
+        if (blackHome) return -win;
+        return sum - pieces * home;
+    }
+
+    public int moves(byte[] board, int at, int side, byte[] out) {
+        return moves(board, at, 0, whites(board, at), blacks(board, at), side, out, null, null);
+    }
+
+    //the same from the board's key and its white and black occupancy. with keys the key of
+    //child k goes to keys[k], and with occupancy its whites and blacks to occupancy[2k] and
+    //[2k + 1]. like the key, a child's occupancy is the parent's with the squares a piece left
+    //cleared and the squares it reached set, which is exact while no square holds two pieces;
+    //only a board that breaks that, which play never expands, is rescanned piece by piece
+    public int moves(byte[] board, int at, long key, long whites, long blacks, int side, byte[] out, long[] keys,
+                     long[] occupancy) {
+        return side == Board.WHITE ? whiteMoves(board, at, key, whites, blacks, out, keys, occupancy)
+                                   : blackMoves(board, at, key, whites, blacks, out, keys, occupancy);
+    }
+
+    //writes the white children into out, size bytes each, one per white piece at most
+    public int whiteMoves(byte[] board, int at, long key, long whites, long blacks, byte[] out, long[] keys,
+                          long[] occupancy) {
+        long occ = whites | blacks;
+        boolean distinct = Long.bitCount(occ) == size;
+        int n = 0;
+        for (int i = 0; i < pieces; i++) {
+            int w = board[at + i];
+            if (w == home) continue;
+            int to = w + 1;
+            int jumped = -1;
+            if (w + 1 != home && (occ & 1L << to) != 0) {       //blocked: jump a black piece onto a free square
+                to = w + 2;
+                if ((blacks & 1L << w + 1) == 0 || (occ & 1L << to) != 0) continue;
+                jumped = blackOn(board, at, w + 1);
+            }
+            int child = n * size;
+            System.arraycopy(board, at, out, child, size);
+            out[child + i] = (byte) to;
+            long childKey = key ^ zobrist[i][w] ^ zobrist[i][to];
+            long childBlacks = blacks;
+            if (jumped >= 0) {
+                long others = distinct ? occ & ~(1L << w | 1L << w + 1) : occupancy(board, at, i, jumped);
+                long free = ~(others | 1L << to) & blackHalf;
+                if (free == 0) throw new IllegalStateException("No spot for black");
+                int sentTo = 63 - Long.numberOfLeadingZeros(free);
+                out[child + jumped] = (byte) sentTo;
+                childKey ^= zobrist[jumped][w + 1] ^ zobrist[jumped][sentTo];
+                childBlacks = blacks & ~(1L << w + 1) | 1L << sentTo;
+            }
+            if (keys != null) keys[n] = childKey;
+            if (occupancy != null) {
+                occupancy[2 * n] = distinct ? whites & ~(1L << w) | 1L << to : whites(out, child);
+                occupancy[2 * n + 1] = distinct ? childBlacks : blacks(out, child);
+            }
+            n++;
+        }
+        return n;
+    }
+
+    //writes the black children into out. a jumped white piece stays where it was sent in the
+    //children of the later black pieces, so each child starts from the previous one's whites
+    public int blackMoves(byte[] board, int at, long key, long whites, long blacks, byte[] out, long[] keys,
+                          long[] occupancy) {
+        boolean distinct = Long.bitCount(whites | blacks) == size;
+        int n = 0;
+        int whitesAt = at;                                       //where the current white squares are
+        byte[] whitesFrom = board;
+        long whitesKey = key;                                    //key with the current white squares
+        for (int j = 0; j < pieces; j++) {
+            int b = board[at + pieces + j];
+            if (b == 0) continue;
+            long occ = blacks | whites;                          //whites as the earlier jumps left them
+            int to = b - 1;
+            boolean jump = false;
+            if (b != 1 && (occ & 1L << to) != 0) {              //blocked: jump any piece
+                to = b - 2;
+                if (to != 0 && (occ & 1L << to) != 0) continue;
+                jump = true;
+            }
+            int child = n * size;
+            System.arraycopy(whitesFrom, whitesAt, out, child, pieces);
+            System.arraycopy(board, at + pieces, out, child + pieces, pieces);
+            out[child + pieces + j] = (byte) to;
+            if (jump && (whites & 1L << b - 1) != 0) {
+                for (int i = 0; i < pieces; i++) {
+                    if (out[child + i] != b - 1) continue;
+                    long others = distinct ? whites & ~(1L << b - 1) : otherWhites(out, child, i);
+                    long free = ~(blacks | others) & whiteHalf;  //the blacks as they were before this move
+                    if (free == 0) throw new IllegalStateException("No spot for white");
+                    int sentTo = Long.numberOfTrailingZeros(free);
+                    out[child + i] = (byte) sentTo;
+                    whitesKey ^= zobrist[i][b - 1] ^ zobrist[i][sentTo];
+                    if (distinct) whites = others | 1L << sentTo;
+                }
+                if (!distinct) whites = whites(out, child);
+            }
+            if (keys != null) keys[n] = whitesKey ^ zobrist[pieces + j][b] ^ zobrist[pieces + j][to];
+            if (occupancy != null) {
+                occupancy[2 * n] = whites;
+                occupancy[2 * n + 1] = distinct ? blacks & ~(1L << b) | 1L << to : blacks(out, child);
+            }
+            n++;
+            whitesFrom = out;
+            whitesAt = child;
+        }
+        return n;
+    }
+
+    //the index in a board of the first black piece on square, or -1
+    int blackOn(byte[] board, int at, int square) {
+        for (int j = pieces; j < size; j++) {
+            if (board[at + j] == square) return j;
+        }
+        return -1;
+    }
+
+    //one bit per occupied square, leaving out the pieces at skip and skip2
+    long occupancy(byte[] board, int at, int skip, int skip2) {
+        long occ = 0;
+        for (int i = 0; i < size; i++) {
+            if (i != skip && i != skip2) occ |= 1L << board[at + i];
+        }
+        return occ;
+    }
+
+    //the white pieces other than i, wherever they are
+    long otherWhites(byte[] board, int at, int i) {
+        long occ = 0;
+        for (int k = 0; k < pieces; k++) {
+            if (k != i) occ |= 1L << board[at + k];
+        }
+        return occ;
+    }
+
+    //one bit per square holding a white piece, from scratch
+    public long whites(byte[] board, int at) {
+        long occ = 0;
+        for (int i = 0; i < pieces; i++) occ |= 1L << board[at + i];
+        return occ;
+    }
+
+    public long blacks(byte[] board, int at) {
+        long occ = 0;
+        for (int j = 0; j < pieces; j++) occ |= 1L << board[at + pieces + j];
+        return occ;
+    }
+
+    //the classic board against Board's generators on every board id, and its search
+    //against AlphaBeta on every canonical board up to depth 6
+    static void verify() {
+        int[] expected = new int[Board.MAX_MOVES];
+        byte[] children = new byte[CLASSIC.pieces * CLASSIC.size];
+        int bad = 0;
+        for (int id = 0; id < Board.COUNT; id++) {
+            int board = Board.fromId(id);
+            byte[] b = unpack(board);
+            for (int side = Board.WHITE; side <= Board.BLACK; side++) {
+                int n = side == Board.WHITE ? Board.generateWhite(board, expected) : Board.generateBlack(board, expected);
+                int m = CLASSIC.moves(b, 0, side, children);
+                boolean same = n == m && CLASSIC.isGameOver(b, 0) == Board.isGameOver(board)
+                        && CLASSIC.estimate(b, 0) == Board.staticEst(board);
+                for (int k = 0; same && k < n; k++) same = pack(children, k * CLASSIC.size) == expected[k];
+                if (!same) bad++;
+            }
+        }
+        System.out.println("Generators: " + (bad == 0 ? "every board matches Board." : bad + " boards differ from Board."));
+
+        bad = 0;
+        int searches = 0;
+        for (int id = 0; id < Board.CANONICAL_COUNT; id++) {
+            int board = Board.fromCanonicalId(id);
+            for (int depth = 1; depth <= 6; depth++) {
+                SearchStats expect = AlphaBeta.search(board, depth, false);
+                Search search = CLASSIC.new Search(depth);
+                int best = pack(search.searchRoot(unpack(board), depth), 0);
+                if (best != expect.bestBoard || search.score != expect.score || search.evaluated != expect.leaves) bad++;
+                searches++;
+            }
+        }
+        System.out.println("Searches: " + searches + ", " + (bad == 0 ? "all match AlphaBeta." : bad + " differ from AlphaBeta."));
+
+        long nodes = 0;
+        long mismatches = 0;
+        for (int id = 0; id < Board.CANONICAL_COUNT; id++) {
+            Search search = CLASSIC.new Search(8, Search.CHECK);
+            search.searchRoot(unpack(Board.fromCanonicalId(id)), 8);
+            nodes += search.nodes;
+            mismatches += search.mismatches;
+        }
+        LineBoard large = new LineBoard(64, 8);
+        Search search = large.new Search(16, Search.CHECK);
+        search.searchRoot(large.start(), 16);
+        nodes += search.nodes;
+        mismatches += search.mismatches;
+        System.out.println("Keys: " + nodes + " nodes checked, "
+                + (mismatches == 0 ? "every incremental key and occupancy matches." : mismatches + " differ."));
+
+        //the smallest board for each piece count, where a jumped piece may get the last free
+        //square of its half: a search from the start, and random games played to the end
+        nodes = 0;
+        mismatches = 0;
+        long plies = 0;
+        int rejected = 0;
+        SplittableRandom random = new SplittableRandom(1);
+        for (int p = 1; p <= 8; p++) {
+            LineBoard small = new LineBoard(4 * p + 2, p);
+            Search s = small.new Search(12, Search.CHECK);
+            s.searchRoot(small.start(), 12);
+            nodes += s.nodes;
+            mismatches += s.mismatches;
+            byte[] out = new byte[p * small.size];
+            for (int game = 0; game < 1000; game++) {
+                byte[] board = small.start();
+                int side = Board.WHITE;
+                for (int ply = 0, passes = 0; ply < 10000 && passes < 2 && !small.isGameOver(board, 0); ply++, side = 1 - side) {
+                    int n = small.moves(board, 0, side, out);
+                    passes = n == 0 ? passes + 1 : 0;
+                    if (n > 0) System.arraycopy(out, random.nextInt(n) * small.size, board, 0, small.size);
+                    plies++;
+                }
+            }
+            try {
+                new LineBoard(4 * p + 1, p);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+            }
+        }
+        System.out.println("Smallest boards: " + nodes + " nodes searched, "
+                + (mismatches == 0 ? "every key matches" : mismatches + " keys differ") + ", "
+                + plies + " random plies played, " + rejected + " of 8 boards one square smaller rejected.");
+    }
+
+    //AlphaBeta on this board: negamax with alpha-beta from white's root, a side with no move
+    //estimated, the root's children each searched with a full window and the first best kept.
+    //it can carry each node's key down from its parent, hash every node from scratch instead,
+    //or carry the key and check it against the scratch one at every node
+    class Search {
+        static final int NO_KEYS = 0;
+        static final int INCREMENTAL = 1;
+        static final int SCRATCH = 2;
+        static final int CHECK = 3;
+
+        final byte[][] moves;   //children at each remaining depth
+        final long[][] keys;    //and their keys, null unless the keys are carried
+        final long[][] occupancy;  //and their whites and blacks, two longs per child
+        final int hashing;
+        long nodes = 0;
+        long evaluated = 0;
+        long horizon = 0;       //leaves cut off by the depth before the game ended
+        long mismatches = 0;    //nodes whose carried key or occupancy is not the scratch one
+        long keySum = 0;        //every node's key added up, so the keys are really computed
+        int score;              //of the last root search, white's point of view
+
+        Search(int maxDepth) {
+            this(maxDepth, NO_KEYS);
+        }
+
+        Search(int maxDepth, int hashing) {
+            this.hashing = hashing;
+            moves = new byte[maxDepth + 1][pieces * size];
+            keys = hashing == INCREMENTAL || hashing == CHECK ? new long[maxDepth + 1][pieces] : null;
+            occupancy = new long[maxDepth + 1][2 * pieces];
+        }
+
+        static int keys(String mode) {
+            switch (mode) {
+                case "none": return NO_KEYS;
+                case "incremental": return INCREMENTAL;
+                case "scratch": return SCRATCH;
+                case "check": return CHECK;
+                default: throw new IllegalArgumentException("keys are none, incremental, scratch or check, got " + mode);
+            }
+        }
+
+        //the best white child of start, or start itself when white has no move
+        byte[] searchRoot(byte[] start, int depth) {
+            byte[] children = moves[depth];
+            long[] childKeys = keys == null ? null : keys[depth];
+            long[] occ = occupancy[depth];
+            int n = whiteMoves(start, 0, keys == null ? 0 : key(start, 0), whites(start, 0), blacks(start, 0), children,
+                    childKeys, occ);
+            long best = Integer.MIN_VALUE;
+            int bestChild = -1;
+            for (int i = 0; i < n; i++) {
+                long childKey = childKeys == null ? 0 : childKeys[i];
+                long v = -search(children, i * size, childKey, occ[2 * i], occ[2 * i + 1], depth - 1, Board.BLACK,
+                        -Negamax.INF, Negamax.INF);
+                if (v > best) {
+                    best = v;
+                    bestChild = i;
+                }
+            }
+            score = (int) best;
+            byte[] result = new byte[size];
+            System.arraycopy(bestChild < 0 ? start : children, bestChild < 0 ? 0 : bestChild * size, result, 0, size);
+            return result;
+        }
+
+        long search(byte[] board, int at, long key, long whites, long blacks, int depth, int side, long alpha, long beta) {
+            nodes++;
+            if (hashing == SCRATCH) {
+                keySum += key(board, at);
+            } else if (hashing != NO_KEYS) {
+                keySum += key;
+                if (hashing == CHECK && (key != key(board, at) || whites != whites(board, at) || blacks != blacks(board, at))) {
+                    mismatches++;
+                }
+            }
+            boolean over = isGameOver(board, at);
+            if (depth == 0 || over) {
+                evaluated++;
+                if (!over) horizon++;
+                return Negamax.relative(estimate(board, at), side);
+            }
+            byte[] children = moves[depth];
+            long[] childKeys = keys == null ? null : keys[depth];
+            long[] occ = occupancy[depth];
+            int n = moves(board, at, key, whites, blacks, side, children, childKeys, occ);
+            if (n == 0) {
+                evaluated++;
+                return Negamax.relative(estimate(board, at), side);
+            }
+            long v = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                long childKey = childKeys == null ? 0 : childKeys[i];
+                long score = -search(children, i * size, childKey, occ[2 * i], occ[2 * i + 1], depth - 1, 1 - side, -beta, -alpha);
+                if (score > v) v = score;
+                if (v >= beta) break;
+                alpha = Math.max(alpha, v);
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+//a search that keeps one board and mutates it in place. a move is an xor mask over the
+//board's nibbles in the low 16 bits and the change it makes to the estimate in the high 16:
+//an advance changes one piece's term, a jump also moves the piece it displaces, and black's
+//second move carries along whatever its first one displaced, as Board.generateBlack does.
+//the estimate is kept as a running sum of one term per piece, so a leaf only checks for a
+//win and reads the sum. same results and positions evaluated as the Negamax core with the
+//Board generators, for both evaluators, with or without pruning; no table, ordering or
+//deadline. the generators are always computed, --move-table does not apply
+public class MakeUnmake {
+
+    static final int W1 = 0, W2 = 1, B1 = 2, B2 = 3;  //pieces in nibble order, high to low
+
+    static boolean enabled = false;  //when set, the engines' search() runs this instead of Negamax
+
+    final Evaluator evaluator;
+    final boolean pruning;
+    final boolean estimateStuck;
+    final Race race;                       //--race, as in Negamax
+    final int[][] terms = new int[4][10];  //terms[piece][square], their sum plus offset is the estimate
+    final int offset;
+    final int whiteWins;                   //the estimate once both white pieces are home
+    final int blackWins;
+    final int[][] moves;                   //moves of the board at each remaining depth
+    int board;
+    int sum;                               //offset plus the term of every piece on board
+    long nodes = 0;
+    long evaluated = 0;
+    long races = 0;
+    SearchStats stats = null;
+    int rootDepth = 0;
+
+    public MakeUnmake(int maxDepth, Evaluator evaluator, boolean pruning, boolean estimateStuck) {
+        this.evaluator = evaluator;
+        this.pruning = pruning;
+        this.estimateStuck = estimateStuck;
+        race = Race.enabled ? new Race(maxDepth, evaluator, Negamax.BOARD, estimateStuck) : null;
+        for (int s = 0; s < 10; s++) {
+            if (evaluator == Evaluator.LINEAR) {
+                terms[W1][s] = terms[W2][s] = terms[B1][s] = terms[B2][s] = s;
+            } else if (evaluator == Evaluator.QUADRATIC) {
+                terms[W1][s] = terms[W2][s] = s * s;
+                terms[B1][s] = terms[B2][s] = -(8 - s) * (8 - s);
+            } else {
+                throw new IllegalArgumentException("Only the linear and quadratic evaluators are kept incrementally");
+            }
+        }
+        offset = evaluator == Evaluator.LINEAR ? -18 : 0;
+        whiteWins = evaluator.estimate(Board.pack(9, 9, 1, 2));
+        blackWins = evaluator.estimate(Board.pack(1, 2, 0, 0));
+        moves = Board.plyBuffers(maxDepth);
+    }
+
+    public static void main(String[] args) {
+        for (Evaluator e : new Evaluator[] {Evaluator.LINEAR, Evaluator.QUADRATIC}) {
+            int bad = new MakeUnmake(0, e, false, true).verify();
+            System.out.println((e == Evaluator.LINEAR ? "Linear" : "Quadratic") + ": "
+                    + (bad == 0 ? "every move matches the generators and the evaluator."
+                                : bad + " boards differ from the generators or the evaluator."));
+        }
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    //the estimate's running sum for board, computed from scratch
+    int sumOf(int board) {
+        return offset + terms[W1][Board.w1(board)] + terms[W2][Board.w2(board)]
+                      + terms[B1][Board.b1(board)] + terms[B2][Board.b2(board)];
+    }
+
+    //piece moved from one square to another
+    int move(int piece, int from, int to) {
+        return (from ^ to) << (12 - 4 * piece) | (terms[piece][to] - terms[piece][from]) << 16;
+    }
+
+    //both moves at once, the same nibble may change in each
+    static int combine(int a, int b) {
+        return ((a ^ b) & 0xFFFF) | ((a >> 16) + (b >> 16)) << 16;
+    }
+
+    void make(int move) {
+        board ^= move & 0xFFFF;
+        sum += move >> 16;
+    }
+
+    void unmake(int move) {
+        board ^= move & 0xFFFF;
+        sum -= move >> 16;
+    }
+
+    int estimate() {
+        if ((board & 0xFF00) == 0x9900) return whiteWins;
+        if ((board & 0xFF) == 0) return blackWins;
+        return sum;
+    }
+
+    //Board.generateWhite as moves
+    int whiteMoves(int board, int[] moves) {
+        int n = 0;
+        int w1 = Board.w1(board);
+        int w2 = Board.w2(board);
+        int b1 = Board.b1(board);
+        int b2 = Board.b2(board);
+
+        if (w1 != 9) {
+            if (w1 == 8) {
+                moves[n++] = move(W1, 8, 9);
+            } else if (w1 + 1 != b1 && w1 + 1 != b2 && w1 + 1 != w2) {
+                moves[n++] = move(W1, w1, w1 + 1);
+            } else if ((w1 + 2 != b1 && w1 + 2 != b2 && w1 + 2 != w2) || w1 + 2 == 9) {
+                int newW1 = w1 + 2;
+                if (w1 + 1 == b1) {
+                    int jumped = Board.findPositionBlack(newW1, w2, 10, b2);
+                    if (newW1 != jumped && newW1 != b2 && newW1 != w2) {
+                        moves[n++] = combine(move(W1, w1, newW1), move(B1, b1, jumped));
+                    }
+                } else if (w1 + 1 == b2) {
+                    int jumped = Board.findPositionBlack(newW1, w2, b1, 10);
+                    if (newW1 != jumped && newW1 != b1 && newW1 != w2) {
+                        moves[n++] = combine(move(W1, w1, newW1), move(B2, b2, jumped));
+                    }
+                }
+            }
+        }
+
+        if (w2 != 9) {
+            if (w2 == 8) {
+                moves[n++] = move(W2, 8, 9);
+            } else if (w2 + 1 != w1 && w2 + 1 != b1 && w2 + 1 != b2) {
+                moves[n++] = move(W2, w2, w2 + 1);
+            } else if ((w2 + 2 != w1 && w2 + 2 != b1 && w2 + 2 != b2) || w2 + 2 == 9) {
+                int newW2 = w2 + 2;
+                if (w2 + 1 == b1) {
+                    int jumped = Board.findPositionBlack(w1, newW2, 10, b2);
+                    if (newW2 != jumped && newW2 != b2 && newW2 != w1) {
+                        moves[n++] = combine(move(W2, w2, newW2), move(B1, b1, jumped));
+                    }
+                } else if (w2 + 1 == b2) {
+                    int jumped = Board.findPositionBlack(w1, newW2, b1, 10);
+                    if (newW2 != jumped && newW2 != b1 && newW2 != w1) {
+                        moves[n++] = combine(move(W2, w2, newW2), move(B2, b2, jumped));
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    //Board.generateBlack as moves. displaced is what b1's jump did to the white pieces,
+    //which b2's move keeps
+    int blackMoves(int board, int[] moves) {
+        int n = 0;
+        int w1 = Board.w1(board);
+        int w2 = Board.w2(board);
+        int b1 = Board.b1(board);
+        int b2 = Board.b2(board);
+        int displaced = 0;
+
+        if (b1 != 0) {
+            if (b1 == 1) {
+                moves[n++] = move(B1, 1, 0);
+            } else if (b1 - 1 != w1 && b1 - 1 != w2 && b1 - 1 != b2) {
+                moves[n++] = move(B1, b1, b1 - 1);
+            } else if ((b1 - 2 != w1 && b1 - 2 != w2 && b1 - 2 != b2) || b1 - 2 == 0) {
+                if (b1 - 1 == w1) {
+                    int to = Board.findPositionWhite(10, w2, b1, b2);
+                    displaced = combine(displaced, move(W1, w1, to));
+                    w1 = to;
+                }
+                if (b1 - 1 == w2) {
+                    int to = Board.findPositionWhite(w1, 10, b1, b2);
+                    displaced = combine(displaced, move(W2, w2, to));
+                    w2 = to;
+                }
+                moves[n++] = combine(displaced, move(B1, b1, b1 - 2));
+            }
+        }
+
+        if (b2 != 0) {
+            if (b2 == 1) {
+                moves[n++] = combine(displaced, move(B2, 1, 0));
+            } else if (b2 - 1 != w1 && b2 - 1 != w2 && b2 - 1 != b1) {
+                moves[n++] = combine(displaced, move(B2, b2, b2 - 1));
+            } else if ((b2 - 2 != w1 && b2 - 2 != w2 && b2 - 2 != b1) || b2 - 2 == 0) {
+                if (b2 - 1 == w1) {
+                    int to = Board.findPositionWhite(10, w2, b1, b2);
+                    displaced = combine(displaced, move(W1, w1, to));
+                    w1 = to;
+                }
+                if (b2 - 1 == w2) {
+                    int to = Board.findPositionWhite(w1, 10, b1, b2);
+                    displaced = combine(displaced, move(W2, w2, to));
+                    w2 = to;
+                }
+                moves[n++] = combine(displaced, move(B2, b2, b2 - 2));
+            }
+        }
+        return n;
+    }
+
+    //a fixed-depth search from start for side, reported like Negamax.run
+    public SearchStats run(String engine, int start, int maxDepth, int side, boolean detailed) {
+        long begin = System.nanoTime();
+        if (detailed) stats = new SearchStats(engine, maxDepth);
+        int[] result;
+        if (maxDepth == 0) {
+            result = new int[] {start, evaluator.estimate(start)};
+            evaluated++;
+        } else {
+            result = searchRoot(start, maxDepth, side);
+        }
+        SearchStats s = stats != null ? stats : new SearchStats(engine);
+        s.races = races;
+        return s.finish(start, result[0], result[1], maxDepth, nodes, evaluated, begin);
+    }
+
+    //the first move with the best score for side, white's point of view, as Negamax.searchRoot
+    int[] searchRoot(int start, int depth, int side) {
+        rootDepth = depth;
+        board = start;
+        sum = sumOf(start);
+        boolean white = side == Board.WHITE;
+        int bestBoard = start;
+        int bestScore = white ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int[] rootMoves = moves[depth];
+        int n = white ? whiteMoves(board, rootMoves) : blackMoves(board, rootMoves);
+        for (int i = 0; i < n; i++) {
+            make(rootMoves[i]);
+            int nextBoard = board;
+            long v = search(depth - 1, 1 - side, -Negamax.INF, Negamax.INF);
+            unmake(rootMoves[i]);
+            int score = (int) (white ? -v : v);
+            if (white ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestBoard = nextBoard;
+            }
+        }
+        return new int[] {bestBoard, bestScore};
+    }
+
+    //Negamax.search on the board held here
+    long search(int depth, int side, long alpha, long beta) {
+        nodes++;
+        if (depth == 0 || Board.isGameOver(board)) {
+            evaluated++;
+            if (stats != null) stats.leaf(rootDepth - depth);
+            return Negamax.relative(estimate(), side);
+        }
+        if (race != null && Race.isRace(board)) {
+            races++;
+            return race.value(board, depth, side);
+        }
+        int[] children = moves[depth];
+        int n = side == Board.WHITE ? whiteMoves(board, children) : blackMoves(board, children);
+        if (n == 0) {
+            if (!estimateStuck) return Negamax.relative(side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE, side);
+            evaluated++;
+            if (stats != null) stats.leaf(rootDepth - depth);
+            return Negamax.relative(estimate(), side);
+        }
+        if (stats != null) stats.interior(rootDepth - depth);
+
+        long v = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            make(children[i]);
+            long score = -search(depth - 1, 1 - side, -beta, -alpha);
+            unmake(children[i]);
+            if (score > v) v = score;
+            if (!pruning) continue;
+            if (v >= beta) {
+                if (stats != null) stats.cutoff(rootDepth - depth);
+                break;
+            }
+            alpha = Math.max(alpha, v);
+        }
+        return v;
+    }
+
+    //boards, counted over both sides of every board id, whose moves do not give the
+    //generators' children in order, or whose running sum does not match the evaluator
+    public int verify() {
+        int[] expected = new int[Board.MAX_MOVES];
+        int[] actual = new int[Board.MAX_MOVES];
+        int bad = 0;
+        for (int id = 0; id < Board.COUNT; id++) {
+            int start = Board.fromId(id);
+            for (int side = Board.WHITE; side <= Board.BLACK; side++) {
+                int n = side == Board.WHITE ? Board.generateWhite(start, expected) : Board.generateBlack(start, expected);
+                int m = side == Board.WHITE ? whiteMoves(start, actual) : blackMoves(start, actual);
+                board = start;
+                sum = sumOf(start);
+                boolean same = n == m && estimate() == evaluator.estimate(start);
+                for (int k = 0; same && k < n; k++) {
+                    make(actual[k]);
+                    same = board == expected[k] && sum == sumOf(board) && estimate() == evaluator.estimate(board);
+                    unmake(actual[k]);
+                    same &= board == start && sum == sumOf(start);
+                }
+                if (!same) bad++;
+            }
+        }
+        return bad;
+    }
+}
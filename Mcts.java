@@ -0,0 +1,341 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+//Monte-Carlo tree search (UCT) on a LineBoard, for boards too large to search to the end.
+//every thread runs the same loop on one shared tree: walk down from the root by the UCT
+//score, expand the leaf with the generators, play random moves to the end of the game and
+//add the result to every node on the way back. a playout ends as a search does, at
+//isGameOver or when the side to move is stuck, and scores the final estimate from 0 (black
+//home) to 1 (white home). a node being walked through counts as a visit that scored 0
+//until its playout is back (virtual loss), so threads spread over the tree instead of
+//following each other. nodes live in flat arrays sized by the memory cap and playouts reuse
+//each thread's buffers, so a search allocates nothing once the tree is set up
+public class Mcts {
+
+    static final int SCALE = 1 << 16;         //a playout's result in fixed point, 0 .. SCALE
+    static final int DEFAULT_MB = 64;
+    static final long DEFAULT_PLAYOUTS = 100_000;
+    static final double EXPLORATION = Math.sqrt(2);
+
+    static final int LEAF = 0;                //node states
+    static final int EXPANDING = 1;
+    static final int EXPANDED = 2;
+
+    final LineBoard game;
+    final int capacity;
+    final byte[] boards;                      //game.size bytes per node
+    final byte[] sides;                       //side to move
+    final int[] first;                        //children are stored next to each other
+    final byte[] counts;                      //children, 0 once expanded means the game is over
+    final AtomicIntegerArray state;           //EXPANDED publishes first and counts
+    final AtomicLongArray visits;
+    final AtomicLongArray results;            //for the side that moved into the node, in SCALE units
+    final AtomicIntegerArray virtual;         //threads walking through the node
+    final AtomicInteger size = new AtomicInteger();
+    final AtomicLong playouts = new AtomicLong();
+    final double exploration;
+    final int maxPlies;                       //a playout is scored where it stands after this many
+    volatile boolean full = false;            //no room for more children
+    final AtomicReference<Throwable> failure = new AtomicReference<>();  //the first worker that died, stops the rest
+
+    public Mcts(LineBoard game, int megabytes, double exploration) {
+        this.game = game;
+        int nodeBytes = game.size + 1 + 4 + 1 + 4 + 8 + 8 + 4;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE - 8, ((long) megabytes << 20) / nodeBytes);
+        this.exploration = exploration;
+        this.maxPlies = 16 * game.squares;
+        boards = new byte[capacity * game.size];
+        sides = new byte[capacity];
+        first = new int[capacity];
+        counts = new byte[capacity];
+        state = new AtomicIntegerArray(capacity);
+        visits = new AtomicLongArray(capacity);
+        results = new AtomicLongArray(capacity);
+        virtual = new AtomicIntegerArray(capacity);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length >= 2 && args[0].equals("agree")) {
+            agree(args);
+            return;
+        }
+        if (args.length < 2) {
+            System.out.println("needs 2 args: <squares> <pieces> [board] [--playouts <n>] [--time-ms <ms>] [--threads <n>]"
+                    + " [--exploration <c>] [--memory-mb <mb>], or agree <boards.txt> [--depth <plies>] [--playouts <n>]"
+                    + " [--threads <n>]");
+            return;
+        }
+        LineBoard game = new LineBoard(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        byte[] start = game.start();
+        Options options = new Options();
+        for (int i = 2; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                start = game.parse(args[i]);
+            } else if (!options.parse(args, i++)) {
+                System.out.println("unknown option: " + args[i - 1]);
+                return;
+            }
+        }
+        if (options.playouts == 0 && options.timeMs == 0) options.playouts = DEFAULT_PLAYOUTS;
+
+        Mcts mcts = new Mcts(game, options.megabytes, options.exploration);
+        long begin = System.nanoTime();
+        int best = mcts.search(start, Board.WHITE, options.playouts, options.timeMs, options.threads);
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.println("Board Position: " + game.toString(mcts.boards, best * game.size) + ".");
+        System.out.println("Best move: " + mcts.visits.get(best) + " visits, value "
+                + String.format(Locale.ROOT, "%.3f", mcts.value(best)) + " for white.");
+        System.out.println(mcts.report(elapsed, options.threads));
+    }
+
+    //command line options shared by a search and agree
+    static class Options {
+        long playouts = 0;
+        long timeMs = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double exploration = EXPLORATION;
+        int megabytes = DEFAULT_MB;
+        int depth = 32;
+
+        //reads the option at args[i] and its value, false when it is not one
+        boolean parse(String[] args, int i) {
+            if (i + 1 >= args.length) return false;
+            switch (args[i]) {
+                case "--playouts": playouts = Long.parseLong(args[i + 1]); break;
+                case "--time-ms": timeMs = Long.parseLong(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--exploration": exploration = Double.parseDouble(args[i + 1]); break;
+                case "--memory-mb": megabytes = Integer.parseInt(args[i + 1]); break;
+                case "--depth": depth = Integer.parseInt(args[i + 1]); break;
+                default: return false;
+            }
+            return true;
+        }
+    }
+
+    //on the classic board, every board of the file where alpha-beta plays every line to the
+    //end within the depth: how often the most visited move is alpha-beta's, or as good
+    static void agree(String[] args) throws IOException, InterruptedException {
+        Options options = new Options();
+        options.playouts = DEFAULT_PLAYOUTS / 10;
+        for (int i = 2; i < args.length; i++) {
+            if (!options.parse(args, i++)) {
+                System.out.println("unknown option: " + args[i - 1]);
+                return;
+            }
+        }
+        LineBoard game = LineBoard.CLASSIC;
+        int[] boards = Files.readAllLines(Paths.get(args[1])).stream()
+                .map(String::trim).filter(line -> !line.isEmpty()).mapToInt(Board::parse).toArray();
+        Mcts mcts = new Mcts(game, options.megabytes, options.exploration);
+        byte[] children = new byte[game.pieces * game.size];
+        long[] values = new long[game.pieces];
+        int positions = 0;
+        int sameBoard = 0;
+        int asGood = 0;
+        long elapsed = 0;
+        long total = 0;
+        for (int packed : boards) {
+            byte[] start = LineBoard.unpack(packed);
+            if (game.isGameOver(start, 0)) continue;
+            int n = game.moves(start, 0, Board.WHITE, children);
+            if (n < 2) continue;                                 //nothing to choose
+            LineBoard.Search search = game.new Search(options.depth);
+            long best = Long.MIN_VALUE;
+            int bestChild = 0;
+            for (int i = 0; i < n; i++) {
+                int at = i * game.size;
+                values[i] = -search.search(children, at, 0, game.whites(children, at), game.blacks(children, at),
+                        options.depth - 1, Board.BLACK, -Negamax.INF, Negamax.INF);
+                if (values[i] > best) {
+                    best = values[i];
+                    bestChild = i;
+                }
+            }
+            if (search.horizon > 0) continue;                    //alpha-beta did not finish
+            positions++;
+            long begin = System.nanoTime();
+            int chosen = mcts.search(start, Board.WHITE, options.playouts, options.timeMs, options.threads) - mcts.first[0];
+            elapsed += System.nanoTime() - begin;
+            total += mcts.playouts.get();
+            if (chosen == bestChild) sameBoard++;
+            if (values[chosen] == best) asGood++;
+        }
+        System.out.println("Positions: " + positions + " of " + boards.length + " where alpha-beta finishes within "
+                + options.depth + " plies and white has two moves.");
+        System.out.println("MCTS picks alpha-beta's board on " + sameBoard + " (" + AlphaBeta.percent(sameBoard, positions)
+                + ") and a move of the same value on " + asGood + " (" + AlphaBeta.percent(asGood, positions) + ").");
+        System.out.println("Playouts: " + total + ", " + (elapsed == 0 ? 0 : total * 1_000_000_000L / elapsed)
+                + " per second on " + options.threads + " threads.");
+    }
+
+    //runs until playouts have been played or timeMs has passed, whichever is set, and
+    //returns the node of the root's most visited child, or the root when side cannot move.
+    //a worker that fails stops the others and the search throws instead of answering from a
+    //partly built tree
+    public int search(byte[] start, int side, long playoutBudget, long timeMs, int threads) throws InterruptedException {
+        size.set(1);
+        playouts.set(0);
+        full = false;
+        failure.set(null);
+        System.arraycopy(start, 0, boards, 0, game.size);
+        sides[0] = (byte) side;
+        reset(0);
+        long deadline = timeMs > 0 ? System.nanoTime() + timeMs * 1_000_000L : Long.MAX_VALUE;
+        long budget = playoutBudget > 0 ? playoutBudget : Long.MAX_VALUE;
+        Thread[] workers = new Thread[Math.max(1, threads)];
+        for (int t = 0; t < workers.length; t++) {
+            Worker worker = new Worker(t);
+            workers[t] = new Thread(() -> {
+                try {
+                    worker.run(budget, deadline);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "mcts-" + t);
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+        if (failure.get() != null) throw new IllegalStateException("an MCTS worker failed", failure.get());
+        if (state.get(0) != EXPANDED || counts[0] == 0) return 0;
+        int best = first[0];
+        for (int c = first[0] + 1; c < first[0] + counts[0]; c++) {
+            if (visits.get(c) > visits.get(best)) best = c;
+        }
+        return best;
+    }
+
+    void reset(int node) {
+        state.set(node, LEAF);
+        visits.set(node, 0);
+        results.set(node, 0);
+        virtual.set(node, 0);
+        counts[node] = 0;
+    }
+
+    //the mean result of node for white
+    double value(int node) {
+        long n = visits.get(node);
+        if (n == 0) return 0.5;
+        double mover = (double) results.get(node) / n / SCALE;
+        return sides[node] == Board.BLACK ? mover : 1 - mover;  //black to move: white moved into it
+    }
+
+    String report(long elapsedNanos, int threads) {
+        long n = playouts.get();
+        return "Playouts: " + n + " in " + elapsedNanos / 1_000_000 + " ms, " + (elapsedNanos == 0 ? 0 : n * 1_000_000_000L / elapsedNanos)
+                + " per second on " + threads + " threads. Tree nodes: " + Math.min(size.get(), capacity) + " of " + capacity + ".";
+    }
+
+    //one thread's loop and buffers
+    class Worker {
+        final SplittableRandom random;
+        final byte[] board = new byte[game.size];
+        final byte[] children = new byte[game.pieces * game.size];
+        final long[] occupancy = new long[2 * game.pieces];  //of each child, whites then blacks
+        int[] path = new int[256];
+
+        Worker(int index) {
+            random = new SplittableRandom(index + 1);
+        }
+
+        void run(long budget, long deadline) {
+            while (failure.get() == null && System.nanoTime() < deadline) {
+                if (playouts.getAndIncrement() >= budget) {
+                    playouts.decrementAndGet();                  //the claim past the budget
+                    return;
+                }
+                iterate();
+            }
+        }
+
+        void iterate() {
+            int length = 0;
+            int node = 0;
+            virtual.incrementAndGet(node);
+            path[length++] = node;
+            while (state.get(node) == EXPANDED && counts[node] > 0) {
+                node = select(node);
+                virtual.incrementAndGet(node);
+                if (length == path.length) path = Arrays.copyOf(path, length * 2);
+                path[length++] = node;
+            }
+            if (state.get(node) == LEAF && (node == 0 || visits.get(node) > 0) && expand(node) && counts[node] > 0) {
+                node = first[node];
+                virtual.incrementAndGet(node);
+                if (length == path.length) path = Arrays.copyOf(path, length * 2);
+                path[length++] = node;
+            }
+            long white = playout(node);
+            for (int i = 0; i < length; i++) {
+                int p = path[i];
+                visits.incrementAndGet(p);
+                results.addAndGet(p, sides[p] == Board.BLACK ? white : SCALE - white);
+                virtual.decrementAndGet(p);
+            }
+        }
+
+        //the child with the best mean result for the side to move plus the exploration term.
+        //threads walking through a child count as visits that lost
+        int select(int node) {
+            double logParent = Math.log(Math.max(1, visits.get(node) + virtual.get(node)));
+            int best = first[node];
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int c = first[node]; c < first[node] + counts[node]; c++) {
+                long n = visits.get(c) + virtual.get(c);
+                if (n == 0) return c;
+                double score = (double) results.get(c) / n / SCALE + exploration * Math.sqrt(logParent / n);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        //adds the children of node, false when another thread is at it or the tree is full
+        boolean expand(int node) {
+            if (full || !state.compareAndSet(node, LEAF, EXPANDING)) return false;
+            int at = node * game.size;
+            int side = sides[node];
+            int n = game.isGameOver(boards, at) ? 0 : game.moves(boards, at, side, children);
+            int start = n == 0 ? 0 : size.getAndAdd(n);
+            if (start + n > capacity || start < 0) {
+                full = true;
+                state.set(node, LEAF);
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                int child = start + i;
+                System.arraycopy(children, i * game.size, boards, child * game.size, game.size);
+                sides[child] = (byte) (1 - side);
+                reset(child);
+            }
+            first[node] = start;
+            counts[node] = (byte) n;
+            state.set(node, EXPANDED);                           //publishes the children
+            return true;
+        }
+
+        //random moves from node to the end of the game, scored for white
+        long playout(int node) {
+            System.arraycopy(boards, node * game.size, board, 0, game.size);
+            int side = sides[node];
+            long whites = game.whites(board, 0);
+            long blacks = game.blacks(board, 0);
+            for (int ply = 0; ply < maxPlies && !game.isGameOver(board, 0); ply++) {
+                int n = game.moves(board, 0, 0, whites, blacks, side, children, null, occupancy);
+                if (n == 0) break;                               //stuck, the game ends as in a search
+                int k = random.nextInt(n);
+                System.arraycopy(children, k * game.size, board, 0, game.size);
+                whites = occupancy[2 * k];
+                blacks = occupancy[2 * k + 1];
+                side = 1 - side;
+            }
+            return (long) (game.estimate(board, 0) + game.win) * SCALE / (2 * game.win);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 import java.io.*;
-import java.util.*;
 
 public class MiniMax {
 
-    static int count = 0;  //counter to track how many positions we evaluated
+    static Tablebase tablebase = null;  //answers the root outright when --tablebase is given
+    static ValueTable values = null;    //answers the root by lookup when --value-table reaches maxDepth
+
+    //a searcher of its own: no pruning, linear estimate, a side with no move is estimated
+    public static Negamax searcher(int maxDepth) {
+        return new Negamax(maxDepth, Evaluator.LINEAR, Negamax.BOARD, false, true);
+    }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 3) {          
-            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth>");
+        if (args.length < 3) {          
+            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth> [--tablebase <file>]"
+                    + " [--value-table <file>]"
+                    + " [--parallel <threads>] [--split-plies <plies>] [--batch [--workers <n>]] [--stats] [--move-table] [--make-unmake] [--race]"
+                    + " [--cache <file> [--cache-mb <mb>]]");
             return;
         }
 
@@ -15,188 +23,126 @@ public class MiniMax {
         String outputFile = args[1];                                  
         int maxDepth = Integer.parseInt(args[2]);                     
 
+        int threads = 0;
+        int splitPlies = 1;
+        boolean batch = false;
+        boolean json = false;
+        int workers = Runtime.getRuntime().availableProcessors();
+        String cacheFile = null;
+        int cacheMb = 0;                    //keep the file's size, or DiskCache.DEFAULT_MB for a new one
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--tablebase") && i + 1 < args.length) {
+                tablebase = Tablebase.load(args[++i]);
+            } else if (args[i].equals("--value-table") && i + 1 < args.length) {
+                values = ValueTable.load(args[++i], ValueTable.LINEAR);
+            } else if (args[i].equals("--parallel") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--split-plies") && i + 1 < args.length) {
+                splitPlies = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--batch")) {
+                batch = true;
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--stats")) {
+                json = true;
+            } else if (args[i].equals("--make-unmake")) {
+                MakeUnmake.setEnabled(true);
+            } else if (args[i].equals("--race")) {
+                Race.setEnabled(true);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheFile = args[++i];
+            } else if (args[i].equals("--cache-mb") && i + 1 < args.length) {
+                cacheMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--move-table")) {
+                Board.setMoveTable(MoveTable.build());
+                System.out.println(Board.table.report());
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        if (threads > 0 && MakeUnmake.enabled) {
+            System.out.println("--make-unmake runs a sequential search");
+            return;
+        }
+        if (cacheFile != null && (threads > 0 || MakeUnmake.enabled)) {
+            System.out.println("--cache keeps plain sequential results, without make/unmake");
+            return;
+        }
+        if (cacheFile != null) DiskCache.shared = DiskCache.open(cacheFile, cacheMb);
+
+        if (batch) {                                                 //one result line per input board
+            boolean detailed = json;
+            long evaluated = Batch.run(inputFile, outputFile, maxDepth, workers, (board, depth) -> {
+                SearchStats stats = search(board, depth, detailed);
+                if (detailed) System.out.println(stats.toJson());
+                return stats.result();
+            });
+            System.out.println("Positions evaluated by static estimation: " + evaluated + ".");
+            if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+            return;
+        }
+
         BufferedReader reader = new BufferedReader(new FileReader(inputFile));
         String startBoard = reader.readLine().trim();                 
         reader.close();
 
-        String bestBoard = startBoard;  //to store best board we find
-        int bestScore = 0;              //stores best score found
-
-        if (maxDepth == 0) {                                         
-            bestScore = staticEst(startBoard);
-            count++;
+        long begin = System.nanoTime();
+        int start = Board.parse(startBoard);
+        SearchStats stats;
+        boolean lookup = values != null && maxDepth <= values.maxDepth;
+
+        if (tablebase != null) {                                     //solved, no search needed
+            int bestBoard = start;
+            if (maxDepth > 0) bestBoard = tablebase.bestMove(start, Board.WHITE, new int[Board.MAX_MOVES]);
+            stats = json ? new SearchStats("MiniMax", maxDepth) : new SearchStats("MiniMax");
+            stats.finish(start, bestBoard, tablebase.score(start, Board.WHITE), maxDepth, 0, 0, begin);
+        } else if (lookup) {                                         //precomputed at this depth
+            int[] result = values.search(start, Board.WHITE, maxDepth, new int[Board.MAX_MOVES]);
+            stats = json ? new SearchStats("MiniMax", maxDepth) : new SearchStats("MiniMax");
+            stats.finish(start, result[0], result[1], maxDepth, 0, 0, begin);
+        } else if (threads > 0 && maxDepth > 0) {                    //root split on a fork/join pool
+            ParallelSearch parallel = new ParallelSearch(threads, splitPlies, false, Evaluator.LINEAR, null);
+            if (json) parallel.stats = new SearchStats("MiniMax", maxDepth);
+            int[] result = parallel.searchRoot(start, maxDepth);
+            stats = parallel.stats != null ? parallel.stats : new SearchStats("MiniMax");
+            stats.races = parallel.races.sum();
+            stats.finish(start, result[0], result[1], maxDepth, parallel.nodes.sum(), parallel.evaluated.sum(), begin);
+            System.out.println(parallel.report());
         } else {
-            int highestSoFar = Integer.MIN_VALUE;                   //track highest score across moves
-            for (String nextBoard : whiteMoves(startBoard)) {       //generate all white moves
-                int moveScore = MinMax(nextBoard, maxDepth - 1);    //run minimax from next position
-                if (moveScore > highestSoFar) {                     //update if better
-                    highestSoFar = moveScore;
-                    bestBoard = nextBoard;
-                }
-            }
-            bestScore = highestSoFar;
+            stats = search(start, maxDepth, json);
         }
-
-        System.out.println("Board Position: " + bestBoard);        
-        System.out.println("Positions evaluated by static estimation: " + count + ".");
+        int bestBoard = stats.bestBoard;  //to store best board we find
+        int bestScore = stats.score;      //stores best score found
+
+        System.out.println("Board Position: " + Board.toString(bestBoard));        
+        System.out.println("Positions evaluated by static estimation: " + stats.leaves + ".");
+        if (Race.enabled) System.out.println("Races solved: " + stats.races + ".");
+        if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+        if (tablebase != null) System.out.println(tablebase.describe(start, Board.WHITE));
+        else if (lookup) System.out.println(values.describe());
         System.out.println("MINIMAX estimate: " + bestScore + ".");
+        if (json) System.out.println(stats.toJson());
 
         BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
-        writer.write(bestBoard);                                     
+        writer.write(Board.toString(bestBoard));                                     
         writer.newLine();
         writer.close();
     }
 
-    public static int MaxMin(String board, int depth) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        List<String> children = whiteMoves(board);
-        if (children.isEmpty()) {
-            count++;
-            return staticEst(board);  //no moves
-        }
-        int v = Integer.MIN_VALUE;
-        for (String child : whiteMoves(board)) {
-            v = Math.max(v, MinMax(child, depth - 1));
-        }
-        return v;
-    }
-
-    public static int MinMax(String board, int depth) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        List<String> children = blackMoves(board);
-        if (children.isEmpty()) {
-            count++;
-            return staticEst(board);  //no moves
-        }
-        int v = Integer.MAX_VALUE;
-        for (String child : blackMoves(board)) {
-            v = Math.min(v, MaxMin(child, depth - 1));
-        }
-        return v;
-    }
-
-    public static boolean isGameOver(String board) {
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-        return (w1 == 9 || w2 == 9 || b1 == 0 || b2 == 0);
-    }
-
-    public static int findPositionBlack(int w1, int w2, int b1, int b2) {
-        for (int i = 8; i > 4; i--) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for black");
-    }
-
-    public static int findPositionWhite(int w1, int w2, int b1, int b2) {
-        for (int i = 1; i < 5; i++) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for white");
-    }
-
-    public static List<String> whiteMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (w1 != 9) {
-            if (w1 == 8) {
-                moves.add("9" + w2 + b1 + b2);
-            } else if (w1 + 1 != b1 && w1 + 1 != b2 && w1 + 1 != w2) {
-                moves.add((w1 + 1) + "" + w2 + b1 + b2);
-            } else if ((w1 + 2 != b1 && w1 + 2 != b2 && w1 + 2 != w2) || w1 + 2 == 9) {
-                int newW1 = w1 + 2;
-                if (w1 + 1 == b1) {
-                    int jumped = findPositionBlack(newW1, w2, 10, b2);
-                    if (newW1 != jumped && newW1 != b2 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + jumped + b2);
-                    }
-                } else if (w1 + 1 == b2) {
-                    int jumped = findPositionBlack(newW1, w2, b1, 10);
-                    if (newW1 != jumped && newW1 != b1 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-
-        if (w2 != 9) {
-            if (w2 == 8) {
-                moves.add(w1 + "9" + b1 + b2);
-            } else if (w2 + 1 != w1 && w2 + 1 != b1 && w2 + 1 != b2) {
-                moves.add(w1 + "" + (w2 + 1) + b1 + b2);
-            } else if ((w2 + 2 != w1 && w2 + 2 != b1 && w2 + 2 != b2) || w2 + 2 == 9) {
-                int newW2 = w2 + 2;
-                if (w2 + 1 == b1) {
-                    int jumped = findPositionBlack(w1, newW2, 10, b2);
-                    if (newW2 != jumped && newW2 != b2 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + jumped + b2);
-                    }
-                } else if (w2 + 1 == b2) {
-                    int jumped = findPositionBlack(w1, newW2, b1, 10);
-                    if (newW2 != jumped && newW2 != b1 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-        return moves;
+    //a fixed-depth search with a searcher of its own, returns {best board, score, positions evaluated}
+    public static int[] analyze(int start, int maxDepth) {
+        return search(start, maxDepth, false).result();
     }
 
-    public static List<String> blackMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (b1 != 0) {
-            if (b1 == 1) {
-                moves.add("" + w1 + w2 + "0" + b2);
-            } else if (b1 - 1 != w1 && b1 - 1 != w2 && b1 - 1 != b2) {
-                moves.add("" + w1 + w2 + (b1 - 1) + b2);
-            } else if ((b1 - 2 != w1 && b1 - 2 != w2 && b1 - 2 != b2) || b1 - 2 == 0) {
-                int newB1 = b1 - 2;
-                if (b1 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b1 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + newB1 + b2);
-            }
-        }
-
-        if (b2 != 0) {
-            if (b2 == 1) {
-                moves.add("" + w1 + w2 + b1 + "0");
-            } else if (b2 - 1 != w1 && b2 - 1 != w2 && b2 - 1 != b1) {
-                moves.add("" + w1 + w2 + b1 + (b2 - 1));
-            } else if ((b2 - 2 != w1 && b2 - 2 != w2 && b2 - 2 != b1) || b2 - 2 == 0) {
-                int newB2 = b2 - 2;
-                if (b2 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b2 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + b1 + newB2);
-            }
-        }
-        return moves;
+    //the same search, returning what it did. detailed also counts interior nodes and the
+    //deepest ply, which costs a little on every node
+    public static SearchStats search(int start, int maxDepth, boolean detailed) {
+        return searcher(maxDepth).run("MiniMax", start, maxDepth, Board.WHITE, detailed);
     }
 
-    public static int staticEst(String board) {
-        int white1 = Character.getNumericValue(board.charAt(0));
-        int white2 = Character.getNumericValue(board.charAt(1));
-        int black1 = Character.getNumericValue(board.charAt(2));
-        int black2 = Character.getNumericValue(board.charAt(3));
-
-        if (white1 == 9 && white2 == 9) return 100;              //white wins
-        if (black1 == 0 && black2 == 0) return -100;             //black wins
-        return white1 + white2 + black1 + black2 - 18;           
+    public static int staticEst(int board) {
+        return Board.staticEst(board);
     }
 }
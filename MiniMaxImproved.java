@@ -1,13 +1,19 @@
 import java.io.*;
-import java.util.*;
 
 public class MiniMaxImproved {
 
-    static int count = 0;  //counter to track how many positions we evaluated
+
+    static ValueTable values = null;  //answers the root by lookup when --value-table reaches maxDepth
+
+    //a searcher of its own: no pruning, quadratic estimate, a side with no move scores MIN/MAX_VALUE
+    public static Negamax searcher(int maxDepth) {
+        return new Negamax(maxDepth, Evaluator.QUADRATIC, Negamax.BOARD, false, false);
+    }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 3) {          
-            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth>");
+        if (args.length < 3) {          
+            System.out.println("needs 3 args: <inputfile.txt> <outputfile.txt> <maxDepth> [--value-table <file>] [--batch [--workers <n>]] [--stats] [--move-table] [--make-unmake] [--race]"
+                    + " [--cache <file> [--cache-mb <mb>]]");
             return;
         }
 
@@ -15,174 +21,103 @@ public class MiniMaxImproved {
         String outputFile = args[1];                                  
         int maxDepth = Integer.parseInt(args[2]);                     
 
+        boolean batch = false;
+        boolean json = false;
+        int workers = Runtime.getRuntime().availableProcessors();
+        String cacheFile = null;
+        int cacheMb = 0;                    //keep the file's size, or DiskCache.DEFAULT_MB for a new one
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--value-table") && i + 1 < args.length) {
+                values = ValueTable.load(args[++i], ValueTable.QUADRATIC);
+            } else if (args[i].equals("--batch")) {
+                batch = true;
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--stats")) {
+                json = true;
+            } else if (args[i].equals("--make-unmake")) {
+                MakeUnmake.setEnabled(true);
+            } else if (args[i].equals("--race")) {
+                Race.setEnabled(true);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheFile = args[++i];
+            } else if (args[i].equals("--cache-mb") && i + 1 < args.length) {
+                cacheMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--move-table")) {
+                Board.setMoveTable(MoveTable.build());
+                System.out.println(Board.table.report());
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        if (cacheFile != null && MakeUnmake.enabled) {
+            System.out.println("--cache keeps plain search results, without make/unmake");
+            return;
+        }
+        if (cacheFile != null) DiskCache.shared = DiskCache.open(cacheFile, cacheMb);
+
+        if (batch) {                                                 //one result line per input board
+            boolean detailed = json;
+            long evaluated = Batch.run(inputFile, outputFile, maxDepth, workers, (board, depth) -> {
+                SearchStats stats = search(board, depth, detailed);
+                if (detailed) System.out.println(stats.toJson());
+                return stats.result();
+            });
+            System.out.println("Positions evaluated by static estimation: " + evaluated + ".");
+            if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+            return;
+        }
+
         BufferedReader reader = new BufferedReader(new FileReader(inputFile));
         String startBoard = reader.readLine().trim();                 
         reader.close();
 
-        String bestBoard = startBoard;  //to store best board we find
-        int bestScore = 0;              //stores best score found
-
-        if (maxDepth == 0) {                                         
-            bestScore = staticEst(startBoard);
-            count++;
+        long begin = System.nanoTime();
+        int start = Board.parse(startBoard);
+        boolean lookup = values != null && maxDepth <= values.maxDepth;
+        SearchStats stats;
+        if (lookup) {                                                //precomputed at this depth
+            int[] result = values.search(start, Board.WHITE, maxDepth, new int[Board.MAX_MOVES]);
+            stats = json ? new SearchStats("MiniMaxImproved", maxDepth) : new SearchStats("MiniMaxImproved");
+            stats.finish(start, result[0], result[1], maxDepth, 0, 0, begin);
         } else {
-            int highestSoFar = Integer.MIN_VALUE;                   //track highest score across moves
-            for (String nextBoard : whiteMoves(startBoard)) {       //generate all white moves
-                int moveScore = MinMax(nextBoard, maxDepth - 1);    //run minimax from next position
-                if (moveScore > highestSoFar) {                     //update if better
-                    highestSoFar = moveScore;
-                    bestBoard = nextBoard;
-                }
-            }
-            bestScore = highestSoFar;
+            stats = search(start, maxDepth, json);
         }
-
-        System.out.println("Board Position: " + bestBoard);        
-        System.out.println("Positions evaluated by static estimation: " + count + ".");
+        int bestBoard = stats.bestBoard;  //to store best board we find
+        int bestScore = stats.score;      //stores best score found
+
+        System.out.println("Board Position: " + Board.toString(bestBoard));        
+        System.out.println("Positions evaluated by static estimation: " + stats.leaves + ".");
+        if (Race.enabled) System.out.println("Races solved: " + stats.races + ".");
+        if (DiskCache.shared != null) System.out.println(DiskCache.shared.report());
+        if (lookup) System.out.println(values.describe());
         System.out.println("MINIMAX estimate: " + bestScore + ".");
+        if (json) System.out.println(stats.toJson());
 
         BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
-        writer.write(bestBoard);                                     
+        writer.write(Board.toString(bestBoard));                                     
         writer.newLine();
         writer.close();
     }
 
-    public static int MaxMin(String board, int depth) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        int v = Integer.MIN_VALUE;
-        for (String child : whiteMoves(board)) {
-            v = Math.max(v, MinMax(child, depth - 1));
-        }
-        return v;
+    //a fixed-depth search with a searcher of its own, returns {best board, score, positions evaluated}
+    public static int[] analyze(int start, int maxDepth) {
+        return search(start, maxDepth, false).result();
     }
 
-    public static int MinMax(String board, int depth) {
-        if (depth == 0 || isGameOver(board)) {
-            count++;
-            return staticEst(board);
-        }
-        int v = Integer.MAX_VALUE;
-        for (String child : blackMoves(board)) {
-            v = Math.min(v, MaxMin(child, depth - 1));
-        }
-        return v;
-    }
-    public static boolean isGameOver(String board) {
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-        return (w1 == 9 || w2 == 9 || b1 == 0 || b2 == 0);
-    }
-
-    public static int findPositionBlack(int w1, int w2, int b1, int b2) {
-        for (int i = 8; i > 4; i--) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for black");
-    }
-
-    public static int findPositionWhite(int w1, int w2, int b1, int b2) {
-        for (int i = 1; i < 5; i++) {
-            if (i != w1 && i != w2 && i != b1 && i != b2) return i;
-        }
-        throw new IllegalStateException("No spot for white");
-    }
-
-    public static List<String> whiteMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (w1 != 9) {
-            if (w1 == 8) {
-                moves.add("9" + w2 + b1 + b2);
-            } else if (w1 + 1 != b1 && w1 + 1 != b2 && w1 + 1 != w2) {
-                moves.add((w1 + 1) + "" + w2 + b1 + b2);
-            } else if ((w1 + 2 != b1 && w1 + 2 != b2 && w1 + 2 != w2) || w1 + 2 == 9) {
-                int newW1 = w1 + 2;
-                if (w1 + 1 == b1) {
-                    int jumped = findPositionBlack(newW1, w2, 10, b2);
-                    if (newW1 != jumped && newW1 != b2 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + jumped + b2);
-                    }
-                } else if (w1 + 1 == b2) {
-                    int jumped = findPositionBlack(newW1, w2, b1, 10);
-                    if (newW1 != jumped && newW1 != b1 && newW1 != w2) {
-                        moves.add("" + newW1 + w2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-
-        if (w2 != 9) {
-            if (w2 == 8) {
-                moves.add(w1 + "9" + b1 + b2);
-            } else if (w2 + 1 != w1 && w2 + 1 != b1 && w2 + 1 != b2) {
-                moves.add(w1 + "" + (w2 + 1) + b1 + b2);
-            } else if ((w2 + 2 != w1 && w2 + 2 != b1 && w2 + 2 != b2) || w2 + 2 == 9) {
-                int newW2 = w2 + 2;
-                if (w2 + 1 == b1) {
-                    int jumped = findPositionBlack(w1, newW2, 10, b2);
-                    if (newW2 != jumped && newW2 != b2 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + jumped + b2);
-                    }
-                } else if (w2 + 1 == b2) {
-                    int jumped = findPositionBlack(w1, newW2, b1, 10);
-                    if (newW2 != jumped && newW2 != b1 && newW2 != w1) {
-                        moves.add("" + w1 + newW2 + b1 + jumped);
-                    }
-                }
-            }
-        }
-        return moves;
-    }
-
-    public static List<String> blackMoves(String board) {
-        List<String> moves = new ArrayList<>();
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
-
-        if (b1 != 0) {
-            if (b1 == 1) {
-                moves.add("" + w1 + w2 + "0" + b2);
-            } else if (b1 - 1 != w1 && b1 - 1 != w2 && b1 - 1 != b2) {
-                moves.add("" + w1 + w2 + (b1 - 1) + b2);
-            } else if ((b1 - 2 != w1 && b1 - 2 != w2 && b1 - 2 != b2) || b1 - 2 == 0) {
-                int newB1 = b1 - 2;
-                if (b1 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b1 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + newB1 + b2);
-            }
-        }
-
-        if (b2 != 0) {
-            if (b2 == 1) {
-                moves.add("" + w1 + w2 + b1 + "0");
-            } else if (b2 - 1 != w1 && b2 - 1 != w2 && b2 - 1 != b1) {
-                moves.add("" + w1 + w2 + b1 + (b2 - 1));
-            } else if ((b2 - 2 != w1 && b2 - 2 != w2 && b2 - 2 != b1) || b2 - 2 == 0) {
-                int newB2 = b2 - 2;
-                if (b2 - 1 == w1) w1 = findPositionWhite(10, w2, b1, b2);
-                if (b2 - 1 == w2) w2 = findPositionWhite(w1, 10, b1, b2);
-                moves.add("" + w1 + w2 + b1 + newB2);
-            }
-        }
-        return moves;
+    //the same search, returning what it did. detailed also counts interior nodes and the
+    //deepest ply, which costs a little on every node
+    public static SearchStats search(int start, int maxDepth, boolean detailed) {
+        return searcher(maxDepth).run("MiniMaxImproved", start, maxDepth, Board.WHITE, detailed);
     }
 
-    public static int staticEst(String board) {
-        int w1 = Character.getNumericValue(board.charAt(0));
-        int w2 = Character.getNumericValue(board.charAt(1));
-        int b1 = Character.getNumericValue(board.charAt(2));
-        int b2 = Character.getNumericValue(board.charAt(3));
+    public static int staticEst(int board) {
+        int w1 = Board.w1(board);
+        int w2 = Board.w2(board);
+        int b1 = Board.b1(board);
+        int b2 = Board.b2(board);
 
         if (w1 == 9 && w2 == 9) return Integer.MAX_VALUE;
         if (b1 == 0 && b2 == 0) return Integer.MIN_VALUE;
@@ -0,0 +1,97 @@
+import java.util.*;
+
+//orders children before the search loop: jumps first, then the killer moves of this ply,
+//then the history table. also counts how many cutoffs came from the first move searched
+public class MoveOrdering {
+
+    static final int JUMP = 1 << 26;
+    static final int KILLER1 = 1 << 25;
+    static final int KILLER2 = 1 << 24;
+
+    final boolean heuristic;  //false keeps generator order and only counts cutoffs
+    final int[][] killers;    //two quiet moves per ply that last caused a cutoff
+    final int[][] history = new int[2][100];  //per side, indexed by moveKey, kept below KILLER2
+    final int[] scores = new int[Board.MAX_MOVES];
+
+    long cutoffs = 0;
+    long firstMoveCutoffs = 0;
+
+    public MoveOrdering(boolean heuristic, int maxDepth) {
+        this.heuristic = heuristic;
+        this.killers = new int[maxDepth + 1][2];
+        for (int[] k : killers) Arrays.fill(k, -1);
+    }
+
+    //from * 10 + to of the piece that moved between parent and child
+    public static int moveKey(int parent, int child, int side) {
+        if (side == Board.WHITE) {
+            if (Board.w1(parent) != Board.w1(child)) return Board.w1(parent) * 10 + Board.w1(child);
+            return Board.w2(parent) * 10 + Board.w2(child);
+        }
+        if (Board.b1(parent) != Board.b1(child)) return Board.b1(parent) * 10 + Board.b1(child);
+        return Board.b2(parent) * 10 + Board.b2(child);
+    }
+
+    //a two square move always jumps a piece: an opposing one, which it displaces, or for black
+    //its own other piece, which stays where it is
+    public static boolean isJump(int key) {
+        return Math.abs(key / 10 - key % 10) == 2;
+    }
+
+    public void order(int board, int side, int[] children, int n, int ply) {
+        if (!heuristic) return;
+        int[] killer = killers[ply];
+        for (int i = 0; i < n; i++) {
+            int key = moveKey(board, children[i], side);
+            int score = history[side][key];
+            if (isJump(key)) score += JUMP;
+            if (key == killer[0]) score += KILLER1;
+            else if (key == killer[1]) score += KILLER2;
+            scores[i] = score;
+        }
+        for (int i = 1; i < n; i++) {  //insertion sort, highest score first and stable on ties
+            int move = children[i], score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                children[j + 1] = children[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            children[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    //called when children[index] refuted the parent board
+    public void cutoff(int board, int side, int move, int index, int ply, int depth) {
+        cutoffs++;
+        if (index == 0) firstMoveCutoffs++;
+        if (!heuristic) return;
+        int key = moveKey(board, move, side);
+        history[side][key] += depth * depth;
+        if (history[side][key] >= KILLER2) age();
+        if (!isJump(key) && killers[ply][0] != key) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = key;
+        }
+    }
+
+    //halves every history score, keeping their order, so history never reaches the killer and
+    //jump bonuses however long the searcher lives
+    void age() {
+        for (int[] scores : history) {
+            for (int k = 0; k < scores.length; k++) scores[k] >>= 1;
+        }
+    }
+
+    //folds in the counts of another searcher's ordering
+    public void add(MoveOrdering other) {
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+    }
+
+    public String report() {
+        double first = cutoffs == 0 ? 0 : 100.0 * firstMoveCutoffs / cutoffs;
+        return "Move ordering: " + cutoffs + " cutoffs, " + String.format(Locale.ROOT, "%.1f", first) + "% by the first move.";
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.*;
+
+//the children of every board for both sides, generated once at startup and stored as
+//compressed sparse rows, so move generation in the search is two reads and a copy. the
+//children of board for side are children[first[i]] up to children[first[i + 1]] with
+//i = Board.id(board) * 2 + side, in the order the generators give them
+public class MoveTable {
+
+    final int[] first;
+    final int[] children;
+    final long buildNanos;
+
+    MoveTable(int[] first, int[] children, long buildNanos) {
+        this.first = first;
+        this.children = children;
+        this.buildNanos = buildNanos;
+    }
+
+    public static void main(String[] args) {
+        MoveTable table = build();
+        System.out.println(table.report());
+        int bad = table.verify();
+        System.out.println(bad == 0 ? "Every board matches the generators."
+                                    : bad + " boards differ from the generators.");
+    }
+
+    //every board id, legal or not, so any board the search can meet has a row
+    public static MoveTable build() {
+        long begin = System.nanoTime();
+        int rows = Board.COUNT * 2;
+        int[] first = new int[rows + 1];
+        int[] children = new int[rows * Board.MAX_MOVES];
+        int[] moves = new int[Board.MAX_MOVES];
+        int edges = 0;
+        for (int i = 0; i < rows; i++) {
+            first[i] = edges;
+            int board = Board.fromId(i / 2);
+            int n = i % 2 == Board.WHITE ? Board.generateWhite(board, moves) : Board.generateBlack(board, moves);
+            for (int k = 0; k < n; k++) children[edges++] = moves[k];
+        }
+        first[rows] = edges;
+        return new MoveTable(first, Arrays.copyOf(children, edges), System.nanoTime() - begin);
+    }
+
+    public int moves(int board, int side, int[] moves) {
+        int i = Board.id(board) * 2 + side;
+        int from = first[i];
+        int n = first[i + 1] - from;
+        for (int k = 0; k < n; k++) moves[k] = children[from + k];
+        return n;
+    }
+
+    //rows that differ from the generators, counted over both sides of every board
+    public int verify() {
+        int[] expected = new int[Board.MAX_MOVES];
+        int[] actual = new int[Board.MAX_MOVES];
+        int bad = 0;
+        for (int id = 0; id < Board.COUNT; id++) {
+            int board = Board.fromId(id);
+            for (int side = Board.WHITE; side <= Board.BLACK; side++) {
+                int n = side == Board.WHITE ? Board.generateWhite(board, expected) : Board.generateBlack(board, expected);
+                int m = moves(board, side, actual);
+                boolean same = n == m;
+                for (int k = 0; same && k < n; k++) same = expected[k] == actual[k];
+                if (!same) bad++;
+            }
+        }
+        return bad;
+    }
+
+    public long bytes() {
+        return 4L * (first.length + children.length);
+    }
+
+    public String report() {
+        return "Move table: " + Board.COUNT + " boards, " + children.length + " children, " + bytes() / 1024
+                + " KB, built in " + String.format(Locale.ROOT, "%.1f", buildNanos / 1e6) + " ms.";
+    }
+}
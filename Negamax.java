@@ -0,0 +1,398 @@
+//the one search core behind MiniMax, MiniMaxImproved, MiniMaxBlack and AlphaBeta. scores
+//are from the point of view of the side to move and a child's score is negated on the way
+//up, so white and black share every line. they are longs because the quadratic evaluator
+//returns Integer.MIN_VALUE, which has no int negation. the engines differ only in the
+//evaluator, the move generator, whether alpha-beta prunes and what a side with no move is
+//worth, and an engine is one constructor call. one Negamax object is one searcher: its
+//buffers, principal variation and ordering tables belong to a single thread
+public class Negamax {
+
+    static final long INF = Long.MAX_VALUE;  //window bound no score reaches, negates safely
+
+    //fills moves with the children of board for side and returns how many there are
+    interface Generator {
+        int moves(int board, int side, int[] moves);
+    }
+
+    static final Generator BOARD = (board, side, moves) ->
+            side == Board.WHITE ? Board.whiteMoves(board, moves) : Board.blackMoves(board, moves);
+
+    final Evaluator evaluator;
+    final Generator generator;
+    final boolean pruning;              //alpha-beta cutoffs, off for the minimax engines
+    final boolean estimateStuck;        //a side with no move is a leaf, else it scores MIN/MAX_VALUE unevaluated
+    final int cacheEvaluator;           //ValueTable.LINEAR or QUADRATIC when results can go to the DiskCache, else -1
+    final Race race;                    //--race: scores each race below the root exactly, else null
+    final int[][] moves;                //children of the board at each remaining depth
+    MoveOrdering ordering = null;       //counts first-move cutoffs, and sorts with --ordering heuristic
+    TranspositionTable tt = null;       //shared between searchers, only with pruning
+    long nodes = 0;                     //every search() call, reported per depth
+    long evaluated = 0;                 //positions this searcher evaluated
+    long races = 0;                     //races scored by race instead of searched
+    SearchStats stats = null;           //per-ply counts, only kept for --stats
+    long deadline = Long.MAX_VALUE;     //System.nanoTime() after which the search gives up
+    boolean aborted = false;            //set once the deadline passes, unwinds the search
+    int rootDepth = 0;                  //depth of the current root search, ply = rootDepth - depth
+    final int[][] pv;                   //best line found below each remaining depth, null without pruning
+    final int[] pvLength;
+    final int[] seed;                   //principal variation of the previous iteration
+    int seedLength = 0;
+    boolean followPv = false;           //true while the search is still on the seed line
+    volatile boolean stop = false;      //set from another thread to end this searcher's search
+    int depthOffset = 0;                //lazy SMP helpers search this many plies past each iteration
+    boolean reverseRoot = false;        //lazy SMP helpers may try the root moves in reverse
+    boolean pvs = false;                //scout every move after the first with a null window
+    int aspiration = 0;                 //root window half width around the last iteration's score, 0 for none
+    boolean mtdf = false;               //root searches are null-window passes converging on the score
+    long scoutReSearches = 0;           //scouts that landed inside the window and were searched again
+    long rootReSearches = 0;            //aspiration windows that failed, MTD(f) passes after the first
+    int lmr = 0;                        //--lmr: moves searched to full depth before later ones lose a ply, 0 for none
+    int lmrSafe = 2;                    //a move ending this close to its home is never reduced, nor is a jump
+    long reductions = 0;                //late moves searched a ply short
+    long reductionReSearches = 0;       //and searched again to full depth because they beat alpha
+
+    public Negamax(int maxDepth, Evaluator evaluator, Generator generator, boolean pruning, boolean estimateStuck) {
+        this.evaluator = evaluator;
+        this.generator = generator;
+        this.pruning = pruning;
+        this.estimateStuck = estimateStuck;
+        cacheEvaluator = generator != BOARD ? -1
+                       : evaluator == Evaluator.LINEAR && estimateStuck ? ValueTable.LINEAR
+                       : evaluator == Evaluator.QUADRATIC && !estimateStuck ? ValueTable.QUADRATIC : -1;
+        race = Race.enabled ? new Race(maxDepth, evaluator, generator, estimateStuck) : null;
+        moves = Board.plyBuffers(maxDepth);
+        pv = pruning ? new int[maxDepth + 1][maxDepth + 1] : null;  //the minimax engines never deepen
+        pvLength = new int[maxDepth + 1];
+        seed = new int[maxDepth + 1];
+    }
+
+    //a fixed-depth search from start for side, as the engines' search() methods report it.
+    //with --make-unmake a plain search over the Board generators runs on MakeUnmake instead.
+    //aspiration windows and MTD(f) need the previous iteration's score, so they deepen
+    public SearchStats run(String engine, int start, int maxDepth, int side, boolean detailed) {
+        if (MakeUnmake.enabled && generator == BOARD && tt == null && ordering == null && !pvs && lmr == 0 && !iterative()) {
+            return new MakeUnmake(maxDepth, evaluator, pruning, estimateStuck).run(engine, start, maxDepth, side, detailed);
+        }
+        long begin = System.nanoTime();
+        if (detailed) stats = new SearchStats(engine, maxDepth);
+        int[] result;
+        if (maxDepth == 0) {
+            result = new int[] {start, evaluator.estimate(start)};
+            evaluated++;
+        } else if (iterative()) {
+            result = deepen(start, side, maxDepth, 0, false);
+        } else {
+            result = searchRoot(start, maxDepth, side);
+        }
+        SearchStats s = stats != null ? stats : new SearchStats(engine);
+        s.reSearches = scoutReSearches + rootReSearches;
+        s.reductions = reductions;
+        s.reductionReSearches = reductionReSearches;
+        s.races = races;
+        return s.finish(start, result[0], result[1], maxDepth, nodes, evaluated, begin);
+    }
+
+    //true when each root search starts from the previous iteration's score
+    boolean iterative() {
+        return aspiration > 0 || mtdf;
+    }
+
+    int[] deepen(int start, int maxDepth, long moveTimeMs, boolean verbose) {
+        return deepen(start, Board.WHITE, maxDepth, moveTimeMs, verbose);
+    }
+
+    //iterative deepening up to maxDepth, searching the previous principal variation first.
+    //with a budget the deadline is armed after depth 1 and the deepest completed iteration
+    //is kept. returns {best board, score, depth}
+    int[] deepen(int start, int side, int maxDepth, long moveTimeMs, boolean verbose) {
+        long begin = System.nanoTime();
+        int[] best = {start, Integer.MIN_VALUE, 0};
+        for (int d = 1; d <= maxDepth; d++) {
+            int depth = Math.min(maxDepth, d + depthOffset);
+            long nodesBefore = nodes;
+            int[] result = mtdf ? mtdf(start, depth, side, d == 1 ? 0 : best[1])
+                         : aspiration > 0 && d > 1 ? aspirate(start, depth, side, best[1])
+                         : searchRoot(start, depth, side, -INF, INF, true);
+            if (aborted) break;                                  //keep the last completed depth
+            best = new int[] {result[0], result[1], depth};
+            seedLength = pvLength[depth];
+            System.arraycopy(pv[depth], 0, seed, 0, seedLength);
+            long elapsed = System.nanoTime() - begin;
+            if (verbose) {
+                System.out.println("Depth " + depth + ": estimate " + result[1] + ", " + (nodes - nodesBefore)
+                        + " nodes, " + elapsed / 1_000_000 + " ms.");
+            }
+            if (moveTimeMs > 0) {
+                deadline = begin + moveTimeMs * 1_000_000L;      //depth 1 always completes
+                if (System.nanoTime() >= deadline) break;
+            }
+        }
+        return best;
+    }
+
+    //a root window of guess +- aspiration. a score on or outside it is only a bound, so that
+    //side of the window is opened and the root searched again
+    int[] aspirate(int start, int depth, int side, int guess) {
+        long alpha = relative(guess, side) - aspiration;
+        long beta = relative(guess, side) + aspiration;
+        while (true) {
+            int[] result = searchRoot(start, depth, side, alpha, beta, true);
+            if (aborted) return result;
+            long score = relative(result[1], side);
+            if (score <= alpha && alpha > -INF) {
+                alpha = -INF;
+            } else if (score >= beta && beta < INF) {
+                beta = INF;
+            } else {
+                return result;
+            }
+            rootReSearches++;
+        }
+    }
+
+    //MTD(f): null-window root searches that close in on the score from guess, each one
+    //moving the lower or the upper bound. the board is the first root move reaching the
+    //score, which takes one more pass when the last one to fail high was below it
+    int[] mtdf(int start, int depth, int side, int guess) {
+        long g = relative(guess, side);
+        long lower = -INF;
+        long upper = INF;
+        int[] high = null;                                       //last pass that failed high
+        long highBeta = 0;
+        int[] highPv = new int[pv[depth].length];                //and its line, later passes overwrite pv
+        int highPvLength = 0;
+        for (int pass = 0; lower < upper; pass++) {
+            long beta = g == lower ? g + 1 : g;
+            int[] result = searchRoot(start, depth, side, beta - 1, beta, true);
+            if (aborted) return result;
+            if (pass > 0) rootReSearches++;
+            g = relative(result[1], side);
+            if (g < beta) {
+                upper = g;
+            } else {
+                lower = g;
+                high = result;
+                highBeta = beta;
+                highPvLength = pvLength[depth];
+                System.arraycopy(pv[depth], 0, highPv, 0, highPvLength);
+            }
+        }
+        if (high != null && highBeta == g) {
+            pvLength[depth] = highPvLength;
+            System.arraycopy(highPv, 0, pv[depth], 0, highPvLength);
+            return high;
+        }
+        rootReSearches++;
+        return searchRoot(start, depth, side, g - 1, g, true);
+    }
+
+    //searches every white move from start with a full window, returns {best board, score}
+    int[] searchRoot(int start, int depth) {
+        return searchRoot(start, depth, Board.WHITE);
+    }
+
+    //a plain fixed-depth search, answered from and saved to the --cache file when one is open.
+    //a transposition table or --lmr can change the result, so those searches skip it
+    int[] searchRoot(int start, int depth, int side) {
+        DiskCache cache = DiskCache.shared;
+        boolean cached = cache != null && cacheEvaluator >= 0 && tt == null && lmr == 0;
+        if (cached) {
+            int[] hit = cache.get(start, side, depth, cacheEvaluator);
+            if (hit != null) return hit;
+        }
+        int[] result = searchRoot(start, depth, side, -INF, INF, false);
+        if (cached && !aborted) cache.put(start, side, depth, cacheEvaluator, result[0], result[1]);
+        return result;
+    }
+
+    //the first child with the best score for side, white's point of view as every engine
+    //prints it. with no move at all the board itself comes back with MIN/MAX_VALUE. plain
+    //alpha-beta searches every root move with the full window; with --pvs, --aspiration or
+    //--mtdf the window, from side's point of view, narrows to the best score so far, later
+    //moves are scouted with a null window under --pvs, and a score reaching beta ends the
+    //loop as a bound. seed puts the previous iteration's line first
+    int[] searchRoot(int start, int depth, int side, long alpha, long beta, boolean seed) {
+        rootDepth = depth;
+        followPv = seed;
+        boolean windowed = pvs || iterative();
+        boolean white = side == Board.WHITE;
+        int bestBoard = start;
+        long best = relative(white ? Integer.MIN_VALUE : Integer.MAX_VALUE, side);
+        int[] rootMoves = moves[depth];
+        int n = generator.moves(start, side, rootMoves);
+        if (reverseRoot) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int t = rootMoves[i];
+                rootMoves[i] = rootMoves[j];
+                rootMoves[j] = t;
+            }
+        }
+        boolean pvNode = followPv && seedFirst(rootMoves, n, 0);
+        for (int i = 0; i < n; i++) {
+            followPv = pvNode && i == 0;
+            int nextBoard = rootMoves[i];
+            long a = windowed ? Math.max(alpha, best) : alpha;
+            long score = child(start, nextBoard, depth - 1, side, a, beta, i);
+            if (aborted) break;
+            if (score > best) {                                  //update if better
+                best = score;
+                bestBoard = nextBoard;
+                if (pv != null) savePv(depth, nextBoard);
+            }
+            if (windowed && best >= beta) break;
+        }
+        followPv = false;
+        return new int[] {bestBoard, (int) (white ? best : -best)};
+    }
+
+    //the score of child i of parent for side to move. under --lmr a late quiet move below the
+    //root is first searched a ply short with a null window, and searched again to full depth
+    //only when it beats alpha. under --pvs every child after the first is scouted with a null
+    //window first and searched again only when it lands inside the window
+    long child(int parent, int board, int depth, int side, long alpha, long beta, int i) {
+        if (lmr > 0 && i >= lmr && depth >= 2 && depth + 1 < rootDepth && alpha > -INF && reducible(parent, board, side)) {
+            reductions++;
+            long score = -search(board, depth - 1, 1 - side, -alpha - 1, -alpha);
+            if (score <= alpha || aborted) return score;
+            reductionReSearches++;
+        }
+        if (pvs && i > 0 && alpha > -INF && alpha + 1 < beta) {  //nothing to scout below an open alpha
+            long score = -search(board, depth, 1 - side, -alpha - 1, -alpha);
+            if (score <= alpha || score >= beta || aborted) return score;
+            scoutReSearches++;
+        }
+        return -search(board, depth, 1 - side, -beta, -alpha);
+    }
+
+    //the score of board for white with side to move and a window from white's point of view,
+    //what a fork/join task below the root needs
+    public int value(int board, int depth, int side, long alpha, long beta) {
+        return (int) (side == Board.WHITE ? search(board, depth, side, alpha, beta)
+                                          : -search(board, depth, side, -beta, -alpha));
+    }
+
+    public long search(int board, int depth, int side, long alpha, long beta) {
+        if (aborted || ((++nodes & 1023) == 0 && (stop || System.nanoTime() > deadline))) {
+            aborted = true;
+            return 0;
+        }
+        if (depth == 0 || Board.isGameOver(board)) {
+            pvLength[depth] = 0;
+            evaluated++;
+            if (stats != null) stats.leaf(rootDepth - depth);
+            return relative(evaluator.estimate(board), side);
+        }
+        if (race != null && Race.isRace(board)) {                //the same value, without the subtree
+            pvLength[depth] = 0;
+            races++;
+            return race.value(board, depth, side);
+        }
+        int key = 0;
+        long entry = TranspositionTable.MISS;
+        if (tt != null) {
+            key = TranspositionTable.key(board, side);
+            entry = tt.probe(key);
+            if (stats != null) stats.probe(entry != TranspositionTable.MISS);
+            //only an entry of this very depth answers: a board recurs at other depths and its
+            //value depends on how far the horizon is, so a deeper entry would change the result
+            if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) == depth) {
+                int s = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && s >= beta)
+                        || (bound == TranspositionTable.UPPER && s <= alpha)) {
+                    tt.cutoffs.increment();
+                    if (stats != null) stats.ttCutoffs++;
+                    pvLength[depth] = 0;
+                    return s;
+                }
+            }
+        }
+        int[] children = moves[depth];
+        int n = generator.moves(board, side, children);
+        if (n == 0) {
+            pvLength[depth] = 0;
+            if (!estimateStuck) return relative(side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE, side);
+            evaluated++;
+            if (stats != null) stats.leaf(rootDepth - depth);
+            return relative(evaluator.estimate(board), side);
+        }
+        if (stats != null) stats.interior(rootDepth - depth);
+        if (ordering != null) ordering.order(board, side, children, n, rootDepth - depth);
+        if (entry != TranspositionTable.MISS) tryFirst(children, n, orient(board, TranspositionTable.bestMove(entry)));
+        boolean pvNode = followPv && seedFirst(children, n, rootDepth - depth);
+
+        long alpha0 = alpha;
+        int best = children[0];
+        long v = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            followPv = pvNode && i == 0;
+            long score = child(board, children[i], depth - 1, side, alpha, beta, i);
+            if (aborted) return 0;
+            if (score > v) {
+                v = score;
+                best = children[i];
+                if (pv != null) savePv(depth, best);
+            }
+            if (!pruning) continue;
+            if (v >= beta) {
+                if (ordering != null) ordering.cutoff(board, side, children[i], i, rootDepth - depth, depth);
+                if (stats != null) stats.cutoff(rootDepth - depth);
+                break;
+            }
+            alpha = Math.max(alpha, v);
+        }
+        if (tt != null) {
+            int bound = v >= beta ? TranspositionTable.LOWER
+                      : v <= alpha0 ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+            tt.store(key, depth, (int) v, bound, orient(board, best));
+        }
+        return v;
+    }
+
+    //a move that neither jumps nor ends within lmrSafe squares of its home. a jump gains two
+    //squares and sends a jumped opponent back (a black leapfrog leaves its own piece in place),
+    //and the last squares decide who gets home first, so those keep their full depth
+    boolean reducible(int parent, int child, int side) {
+        int key = MoveOrdering.moveKey(parent, child, side);
+        if (MoveOrdering.isJump(key)) return false;
+        int to = key % 10;
+        return (side == Board.WHITE ? 9 - to : to) > lmrSafe;
+    }
+
+    //a white point of view score as side sees it
+    static long relative(int score, int side) {
+        return side == Board.WHITE ? score : -(long) score;
+    }
+
+    //moves the given move to the front so it is searched first, false if it is not a child.
+    //the moves before it shift down one so the rest of the ordering is kept
+    static boolean tryFirst(int[] children, int n, int move) {
+        for (int i = 0; i < n; i++) {
+            if (children[i] == move) {
+                System.arraycopy(children, 0, children, 1, i);
+                children[0] = move;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //the table keeps moves as children of the canonical board. swapping the white pieces
+    //turns a child of board into the matching child of its swap, and back
+    static int orient(int board, int move) {
+        return board == Board.canonical(board) ? move : Board.swapWhite(move);
+    }
+
+    //puts the previous iteration's move at this ply first while still on its line
+    boolean seedFirst(int[] children, int n, int ply) {
+        return ply < seedLength && tryFirst(children, n, seed[ply]);
+    }
+
+    //the line at depth is move followed by the line just found one ply deeper
+    void savePv(int depth, int move) {
+        pv[depth][0] = move;
+        System.arraycopy(pv[depth - 1], 0, pv[depth], 1, pvLength[depth - 1]);
+        pvLength[depth] = pvLength[depth - 1] + 1;
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+//fork/join search for AlphaBeta (pruning) and MiniMax. every board in the first splitPlies
+//plies below the root is a task whose children are searched concurrently, and below that
+//each task searches sequentially with a searcher of its own. with pruning the root children
+//share the best score found so far as their alpha bound, and a task searches its eldest
+//child alone before forking the younger ones (young brothers wait) so they start with the
+//window the eldest tightened
+public class ParallelSearch {
+
+    static final long NONE = Long.MAX_VALUE;  //no root child has finished yet
+
+    final ForkJoinPool pool;
+    final int threads;
+    final int splitPlies;
+    final boolean pruning;
+    final Evaluator evaluator;    //scores the leaves above the sequential plies
+    final String orderingMode;
+    final MoveOrdering ordering;  //cutoff counts of every task's searcher, or null
+    final LongAdder tasks = new LongAdder();
+    final LongAdder nodes = new LongAdder();
+    final LongAdder evaluated = new LongAdder();
+    final LongAdder reSearches = new LongAdder();  //scouts searched again under --pvs
+    final LongAdder reductions = new LongAdder();  //late moves searched a ply short under --lmr
+    final LongAdder reductionReSearches = new LongAdder();
+    final LongAdder races = new LongAdder();       //races scored without searching under --race
+    SearchStats stats = null;     //every task's counts, only kept for --stats
+    int rootDepth = 0;
+    final AtomicLong rootBest = new AtomicLong(NONE);  //score << 32 | index of the best root child
+
+    public ParallelSearch(int threads, int splitPlies, boolean pruning, Evaluator evaluator, String orderingMode) {
+        this.pool = new ForkJoinPool(threads);
+        this.threads = threads;
+        this.splitPlies = Math.max(1, splitPlies);
+        this.pruning = pruning;
+        this.evaluator = evaluator;
+        this.orderingMode = orderingMode;
+        this.ordering = orderingMode == null ? null : new MoveOrdering(false, 0);
+    }
+
+    //same result as the sequential root loop: the first white move with the highest score
+    public int[] searchRoot(int start, int depth) {
+        rootDepth = depth;
+        int[] rootMoves = new int[Board.MAX_MOVES];
+        int n = Board.whiteMoves(start, rootMoves);
+        Node[] forks = new Node[n];
+        for (int i = 0; i < n; i++) {
+            forks[i] = new Node(rootMoves[i], depth - 1, Board.BLACK, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                    splitPlies - 1, i);
+            pool.execute(forks[i]);
+        }
+
+        int bestBoard = start;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int score = forks[i].join();
+            if (score > bestScore) {
+                bestScore = score;
+                bestBoard = rootMoves[i];
+            }
+        }
+        pool.shutdown();
+        return new int[] {bestBoard, bestScore};
+    }
+
+    //alpha for root child k. children before the best one must beat its score outright, so a
+    //child that only fails low can never tie the true best and take its place
+    int alphaFor(int k) {
+        long best = rootBest.get();
+        if (!pruning || best == NONE) return Integer.MIN_VALUE;
+        int score = (int) (best >> 32);
+        int index = (int) best;
+        if (index < k || score == Integer.MIN_VALUE) return score;
+        return score - 1;
+    }
+
+    void publish(int score, int k) {
+        long packed = ((long) score << 32) | k;
+        while (true) {
+            long best = rootBest.get();
+            if (best != NONE) {
+                int bestScore = (int) (best >> 32);
+                if (score < bestScore || (score == bestScore && k > (int) best)) return;
+            }
+            if (rootBest.compareAndSet(best, packed)) return;
+        }
+    }
+
+    public String report() {
+        String s = "Parallel search: " + threads + " threads, " + tasks.sum() + " tasks";
+        return pruning ? s + ", " + nodes.sum() + " nodes." : s + ".";
+    }
+
+    @SuppressWarnings("serial")  //tasks only run on the pool, never serialized
+    class Node extends RecursiveTask<Integer> {
+        final int board, depth, side, alpha, beta, splits, rootIndex;
+
+        Node(int board, int depth, int side, int alpha, int beta, int splits, int rootIndex) {
+            this.board = board;
+            this.depth = depth;
+            this.side = side;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.splits = splits;
+            this.rootIndex = rootIndex;
+        }
+
+        protected Integer compute() {
+            tasks.increment();
+            int v = search();
+            if (splits == splitPlies - 1) publish(v, rootIndex);  //this is a root child
+            return v;
+        }
+
+        int search() {
+            int a = Math.max(alpha, alphaFor(rootIndex));
+            if (splits == 0) return sequential(a);
+            if (depth == 0 || Board.isGameOver(board)) return leaf();
+            if (Race.enabled && Race.isRace(board)) return sequential(a);  //its searcher scores the race
+            int[] children = new int[Board.MAX_MOVES];
+            int n = side == Board.WHITE ? Board.whiteMoves(board, children) : Board.blackMoves(board, children);
+            if (n == 0) return leaf();
+            if (stats != null) {
+                synchronized (stats) {
+                    stats.interior(rootDepth - depth);
+                }
+            }
+
+            int b = beta;
+            int v = side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            int first = 0;
+            if (pruning) {  //the eldest brother alone, then the younger ones inside its window
+                v = new Node(children[0], depth - 1, 1 - side, a, b, splits - 1, rootIndex).compute();
+                if (side == Board.WHITE) a = Math.max(a, v);
+                else b = Math.min(b, v);
+                if (a >= b || n == 1) return v;
+                first = 1;
+            }
+            Node[] forks = new Node[n - first];
+            for (int i = first; i < n; i++) {
+                forks[i - first] = new Node(children[i], depth - 1, 1 - side, a, b, splits - 1, rootIndex);
+            }
+            invokeAll(forks);
+            for (Node f : forks) {
+                v = side == Board.WHITE ? Math.max(v, f.join()) : Math.min(v, f.join());
+            }
+            return v;
+        }
+
+        int leaf() {
+            evaluated.increment();
+            if (stats != null) {
+                synchronized (stats) {
+                    stats.leaf(rootDepth - depth);
+                }
+            }
+            return evaluator.estimate(board);
+        }
+
+        int sequential(int a) {
+            Negamax s = pruning ? AlphaBeta.searcher(depth, orderingMode) : MiniMax.searcher(depth);
+            s.rootDepth = depth;
+            if (stats != null) s.stats = new SearchStats(pruning ? "AlphaBeta" : "MiniMax", depth);
+            int v = pruning ? s.value(board, depth, side, a, beta) : s.value(board, depth, side, -Negamax.INF, Negamax.INF);
+            nodes.add(s.nodes);
+            evaluated.add(s.evaluated);
+            reSearches.add(s.scoutReSearches);
+            reductions.add(s.reductions);
+            reductionReSearches.add(s.reductionReSearches);
+            races.add(s.races);
+            if (stats != null) stats.add(s.stats, rootDepth - depth);
+            if (ordering != null) {
+                synchronized (ordering) {
+                    ordering.add(s.ordering);
+                }
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+import java.io.*;
+import java.util.*;
+
+//depth-first proof-number search (df-pn): does a side force a win? a win is a staticEst
+//sentinel, both of a side's pieces home (+-100), so the game goes on past isGameOver as in
+//the Tablebase, and a side with no move passes. the attacker needs one proved child, the
+//defender every child disproved, and the search always follows the child with the smallest
+//proof (attacker) or disproof (defender) number until a threshold from its parent is
+//reached. positions are kept in a table keyed on board, side and ply, so the search graph
+//has no cycles; the horizon ply and both sides stuck disprove, so a proof is a forced win
+//within the horizon. the table is sized by the memory cap, and a search that fills it or
+//spends its budget answers unknown
+public class ProofNumber {
+
+    static final int INF = Integer.MAX_VALUE;
+
+    static final int UNKNOWN = -1;            //besides Tablebase.DRAW, WHITE_WINS and BLACK_WINS
+    static final int DEFAULT_MB = 64;
+    static final long DEFAULT_BUDGET = 10_000_000;
+    static final int DEFAULT_HORIZON = 64;    //the longest forced win takes 52 plies
+    static final int ENTRY_BYTES = 8 + 4 + 4 + 4;
+
+    final int mask;            //table slots - 1
+    final long[] keys;         //board, side and ply, see key()
+    final int[] pns;
+    final int[] dns;
+    final int[] generations;   //a slot counts only in the generation that wrote it
+    final int horizon;
+    final long budget;         //expansions per search
+    final int[][] moves;       //children at each ply
+    final int[][] numbers;     //{pn, dn} of the child being looked at, per ply
+    final int[] own = new int[Board.MAX_MOVES];      //scratch for stuck()
+    final int[] replies = new int[Board.MAX_MOVES];
+    int generation = 0;
+    int used = 0;              //slots of this generation
+    int attacker;
+    long expanded = 0;         //nodes expanded, all searches since the last reset
+    long limit;
+    boolean aborted = false;
+
+    public ProofNumber(int megabytes, long budget, int horizon) {
+        int slots = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(1, ((long) megabytes << 20) / ENTRY_BYTES)));
+        this.mask = slots - 1;
+        this.budget = budget;
+        this.horizon = horizon;
+        keys = new long[slots];
+        pns = new int[slots];
+        dns = new int[slots];
+        generations = new int[slots];
+        moves = new int[horizon + 1][Board.MAX_MOVES];
+        numbers = new int[horizon + 1][2];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("needs 1 arg: <inputfile.txt> [--side white|black] [--nodes <expansions>]"
+                    + " [--memory-mb <mb>] [--horizon <plies>] [--compare], or verify");
+            return;
+        }
+        if (args[0].equals("verify")) {
+            verify();
+            return;
+        }
+        int side = Board.WHITE;
+        long budget = DEFAULT_BUDGET;
+        int megabytes = DEFAULT_MB;
+        int horizon = DEFAULT_HORIZON;
+        boolean compare = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--side") && i + 1 < args.length) {
+                side = args[++i].equals("black") ? Board.BLACK : Board.WHITE;
+            } else if (args[i].equals("--nodes") && i + 1 < args.length) {
+                budget = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--memory-mb") && i + 1 < args.length) {
+                megabytes = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--horizon") && i + 1 < args.length) {
+                horizon = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--compare")) {
+                compare = true;
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        BufferedReader reader = new BufferedReader(new FileReader(args[0]));
+        int start = Board.parse(reader.readLine().trim());
+        reader.close();
+
+        long begin = System.nanoTime();
+        ProofNumber search = new ProofNumber(megabytes, budget, horizon);
+        int result = search.solve(start, side);
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+
+        System.out.println("Board: " + Board.toString(start) + ", " + (side == Board.WHITE ? "white" : "black") + " to move.");
+        System.out.println("Result: " + describe(result, horizon) + ".");
+        boolean won = result == Tablebase.WHITE_WINS || result == Tablebase.BLACK_WINS;
+        if (won) System.out.println("Winning line: " + line(search.line(start, side), start, side) + ".");
+        System.out.println("Nodes expanded: " + search.expanded + ", table entries: " + search.used + " of "
+                + (search.mask + 1) + ", " + elapsed + " ms.");
+        if (compare && won) {
+            long[] ab = alphaBeta(start, side, result == Tablebase.WHITE_WINS ? Board.WHITE : Board.BLACK, horizon, budget);
+            System.out.println(ab == null ? "Alpha-beta: no win found within the horizon and budget."
+                    : "Alpha-beta: the same win at depth " + ab[0] + " after " + ab[1] + " nodes over all iterations.");
+        }
+    }
+
+    //every board with white and with black to move against the Tablebase, then the nodes
+    //both searches need for the wins alpha-beta finds within its budget
+    static void verify() {
+        byte[] entries = Tablebase.solve();
+        ProofNumber search = new ProofNumber(DEFAULT_MB, DEFAULT_BUDGET, DEFAULT_HORIZON);
+        int positions = 0;
+        int bad = 0;
+        int unknown = 0;
+        int wins = 0;
+        int outOfBudget = 0;
+        long pnNodes = 0;
+        long abNodes = 0;
+        for (int id = 0; id < Board.CANONICAL_COUNT; id++) {
+            int board = Board.fromCanonicalId(id);
+            for (int side = Board.WHITE; side <= Board.BLACK; side++) {
+                positions++;
+                search.expanded = 0;
+                int result = search.solve(board, side);
+                if (result == UNKNOWN) {
+                    unknown++;
+                    continue;
+                }
+                if (result != entries[Tablebase.index(board, side) * 2]) bad++;
+                if (result == Tablebase.DRAW || Tablebase.winner(board) != Tablebase.DRAW) continue;
+                int winner = result == Tablebase.WHITE_WINS ? Board.WHITE : Board.BLACK;
+                long[] ab = alphaBeta(board, side, winner, DEFAULT_HORIZON, 1_000_000);
+                if (ab == null) {
+                    outOfBudget++;
+                    continue;
+                }
+                wins++;
+                pnNodes += search.expanded;
+                abNodes += ab[1];
+            }
+        }
+        System.out.println("Positions: " + positions + ", " + (bad == 0 ? "all match the tablebase" : bad + " differ from the tablebase")
+                + (unknown == 0 ? "." : ", " + unknown + " unknown."));
+        System.out.println("Forced wins: " + wins + ", " + pnNodes + " nodes expanded by proof-number search, "
+                + abNodes + " by iterative alpha-beta" + (outOfBudget == 0 ? "." : ", which gave up on " + outOfBudget + " more."));
+    }
+
+    static String describe(int result, int horizon) {
+        switch (result) {
+            case Tablebase.WHITE_WINS: return "white wins";
+            case Tablebase.BLACK_WINS: return "black wins";
+            case Tablebase.DRAW: return "neither side forces a win within " + horizon + " plies";
+            default: return "unknown, out of nodes or memory";
+        }
+    }
+
+    //the boards of a line, a pass shown as the side that passed
+    static String line(int[] boards, int start, int side) {
+        StringBuilder sb = new StringBuilder(Board.toString(start));
+        int previous = start;
+        for (int b : boards) {
+            sb.append(' ').append(b == previous ? (side == Board.WHITE ? "(white passes)" : "(black passes)") : Board.toString(b));
+            previous = b;
+            side = 1 - side;
+        }
+        return sb.toString();
+    }
+
+    //Tablebase.WHITE_WINS or BLACK_WINS when a side forces a win from start with side to
+    //move, DRAW when neither can within the horizon, UNKNOWN when a search ran out. the side
+    //to move is tried as the attacker first, and the table of the last search is kept for line()
+    public int solve(int start, int side) {
+        int result = prove(start, side, side);
+        if (result != Tablebase.DRAW) return result;
+        return prove(start, side, 1 - side);
+    }
+
+    //the winner when attacker forces a win, DRAW when it cannot, UNKNOWN when out of nodes
+    int prove(int start, int side, int attacker) {
+        this.attacker = attacker;
+        generation++;
+        used = 0;
+        aborted = false;
+        limit = expanded + budget;
+        int[] root = numbers[0];
+        evaluate(start, side, 0, root);
+        if (root[0] != 0 && root[1] != 0) search(start, side, 0, INF, INF);
+        if (aborted) return UNKNOWN;
+        evaluate(start, side, 0, root);
+        if (root[1] == 0) return Tablebase.DRAW;
+        return attacker == Board.WHITE ? Tablebase.WHITE_WINS : Tablebase.BLACK_WINS;
+    }
+
+    //expands board until its proof number reaches pnLimit or its disproof number dnLimit
+    void search(int board, int side, int ply, int pnLimit, int dnLimit) {
+        if (expanded++ >= limit) {
+            aborted = true;
+            return;
+        }
+        int[] children = moves[ply];
+        int n = side == Board.WHITE ? Board.whiteMoves(board, children) : Board.blackMoves(board, children);
+        if (n == 0) {                                            //a pass, evaluate() saw the opponent can move
+            children[0] = board;
+            n = 1;
+        }
+        int childSide = 1 - side;
+        boolean or = side == attacker;
+        int[] child = numbers[ply + 1];
+        while (true) {
+            int min = INF;                                       //the best child's number, the one to search
+            int second = INF;
+            int best = 0;
+            int bestOther = 0;                                   //and its number of the other kind
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                evaluate(children[i], childSide, ply + 1, child);
+                int mine = or ? child[0] : child[1];
+                int other = or ? child[1] : child[0];
+                sum += other;
+                if (mine < min) {
+                    second = min;
+                    min = mine;
+                    best = i;
+                    bestOther = other;
+                } else if (mine < second) {
+                    second = mine;
+                }
+            }
+            int total = (int) Math.min(sum, INF);
+            int pn = or ? min : total;
+            int dn = or ? total : min;
+            if (pn >= pnLimit || dn >= dnLimit || pn == 0 || dn == 0) {
+                if (!store(board, side, ply, pn, dn)) aborted = true;
+                return;
+            }
+            int mineLimit = (int) Math.min(or ? pnLimit : dnLimit, second + 1L);
+            int otherLimit = (int) Math.min(INF, (long) (or ? dnLimit : pnLimit) - total + bestOther);
+            if (or) search(children[best], childSide, ply + 1, mineLimit, otherLimit);
+            else search(children[best], childSide, ply + 1, otherLimit, mineLimit);
+            if (aborted) return;
+        }
+    }
+
+    //{pn, dn} of board: decided, a race, at the horizon, stuck on both sides, from the table, or new
+    void evaluate(int board, int side, int ply, int[] out) {
+        int est = Board.staticEst(board);
+        if (est == 100 || est == -100) {
+            boolean won = (est == 100) == (attacker == Board.WHITE);
+            out[0] = won ? 0 : INF;
+            out[1] = won ? INF : 0;
+            return;
+        }
+        if (Race.isRace(board) && Race.legal(board)) {          //decided in closed form, see Race
+            boolean won = Race.result(board, side) == (attacker == Board.WHITE ? Tablebase.WHITE_WINS : Tablebase.BLACK_WINS)
+                    && ply + Race.plies(board, side) <= horizon;
+            out[0] = won ? 0 : INF;
+            out[1] = won ? INF : 0;
+            return;
+        }
+        if (ply >= horizon || stuck(board, side)) {
+            out[0] = INF;
+            out[1] = 0;
+            return;
+        }
+        int slot = find(board, side, ply);
+        if (slot >= 0 && generations[slot] == generation) {
+            out[0] = pns[slot];
+            out[1] = dns[slot];
+        } else {
+            out[0] = 1;
+            out[1] = 1;
+        }
+    }
+
+    //neither side can move, a draw
+    boolean stuck(int board, int side) {
+        return (side == Board.WHITE ? Board.whiteMoves(board, own) : Board.blackMoves(board, own)) == 0
+            && (side == Board.WHITE ? Board.blackMoves(board, replies) : Board.whiteMoves(board, replies)) == 0;
+    }
+
+    static long key(int board, int side, int ply) {
+        return (long) board << 16 | (long) ply << 1 | side;
+    }
+
+    //the slot holding board, or the free slot it would go in, or -1 when the table is full
+    int find(int board, int side, int ply) {
+        long key = key(board, side, ply);
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+            if (generations[slot] != generation || keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    //false when the table is full
+    boolean store(int board, int side, int ply, int pn, int dn) {
+        int slot = find(board, side, ply);
+        if (slot < 0) return false;
+        if (generations[slot] != generation) {
+            if (used >= mask - mask / 8) return false;          //keeps the probes short
+            generations[slot] = generation;
+            keys[slot] = key(board, side, ply);
+            used++;
+        }
+        pns[slot] = pn;
+        dns[slot] = dn;
+        return true;
+    }
+
+    //the proved line of the last search from start: the attacker's proved move and the
+    //defender's first move at each ply, until the win
+    int[] line(int start, int side) {
+        List<Integer> boards = new ArrayList<>();
+        int board = start;
+        int[] child = new int[2];
+        int[] buffer = new int[Board.MAX_MOVES];
+        for (int ply = 0; ply < horizon && Math.abs(Board.staticEst(board)) != 100; ply++) {
+            int n = side == Board.WHITE ? Board.whiteMoves(board, buffer) : Board.blackMoves(board, buffer);
+            if (n == 0) {
+                buffer[0] = board;
+                n = 1;
+            }
+            int next = buffer[0];
+            if (side == attacker) {
+                for (int i = 0; i < n; i++) {
+                    evaluate(buffer[i], 1 - side, ply + 1, child);
+                    if (child[0] == 0) {
+                        next = buffer[i];
+                        break;
+                    }
+                }
+            }
+            board = next;
+            side = 1 - side;
+            boards.add(board);
+        }
+        return boards.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    //iterative deepening alpha-beta on the same rules with win, loss or unknown scores for
+    //winner, up to horizon plies or budget nodes. returns {depth, nodes over all iterations}
+    //at the first depth that sees the win, or null
+    static long[] alphaBeta(int start, int side, int winner, int horizon, long budget) {
+        WinSearch search = new WinSearch(winner, horizon, budget);
+        for (int depth = 1; depth <= horizon && !search.aborted; depth++) {
+            if (search.search(start, side, depth, -1, 1, false) == 1) return new long[] {depth, search.nodes};
+        }
+        return null;
+    }
+
+    //1 when winner forces a win within depth plies, -1 when it cannot, 0 when the horizon
+    //hides it. both sides stuck counts against winner, as above
+    static class WinSearch {
+        final int winner;
+        final int[][] moves;
+        final long budget;
+        long nodes = 0;
+        boolean aborted = false;
+
+        WinSearch(int winner, int maxDepth, long budget) {
+            this.winner = winner;
+            this.moves = Board.plyBuffers(maxDepth);
+            this.budget = budget;
+        }
+
+        int search(int board, int side, int depth, int alpha, int beta, boolean passed) {
+            if (++nodes > budget) aborted = true;
+            if (aborted) return 0;
+            int est = Board.staticEst(board);
+            if (est == 100 || est == -100) return (est == 100) == (winner == Board.WHITE) ? 1 : -1;
+            if (depth == 0) return 0;
+            int[] children = moves[depth];
+            int n = side == Board.WHITE ? Board.whiteMoves(board, children) : Board.blackMoves(board, children);
+            if (n == 0) return passed ? -1 : search(board, 1 - side, depth - 1, alpha, beta, true);
+            boolean max = side == winner;
+            int v = max ? -1 : 1;
+            for (int i = 0; i < n; i++) {
+                int score = search(children[i], 1 - side, depth - 1, alpha, beta, false);
+                if (max) {
+                    v = Math.max(v, score);
+                    alpha = Math.max(alpha, v);
+                } else {
+                    v = Math.min(v, score);
+                    beta = Math.min(beta, v);
+                }
+                if (alpha >= beta) break;
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.*;
+
+//boards where every white piece has passed every black piece. the two sides can no longer
+//block or jump each other, so the rest of the game is a pure race, solved in closed form:
+//white never jumps its own piece, so it needs one move per square to go, (9 - w1) + (9 - w2).
+//black can leapfrog its own piece two squares at a time once the pair is adjacent, and every
+//move brings the farther piece at most one square closer, so it needs max(b1, b2) moves.
+//white, moving first, wins when it needs no more moves than black. results are those of the
+//Tablebase, where a side wins once both of its pieces are home, and the Tablebase and
+//ProofNumber take them without searching. the engines' searches end a game at the first
+//piece home and estimate the board at the horizon, so under --race a searcher asks value()
+//instead: the depth-limited value of the race, solved once per board, side and depth over
+//the race boards alone and shared by every path that reaches it
+public class Race {
+
+    static final long UNKNOWN = Long.MIN_VALUE;  //no score is this, see Negamax.relative
+
+    static boolean enabled = false;  //when set, the engines' searchers score races with value()
+
+    final Evaluator evaluator;
+    final Negamax.Generator generator;
+    final boolean estimateStuck;
+    final int[][] moves;      //children of the board at each remaining depth
+    final long[][] values;    //values[depth][Board.id(board) * 2 + side], allocated on first use
+
+    public Race(int maxDepth, Evaluator evaluator, Negamax.Generator generator, boolean estimateStuck) {
+        this.evaluator = evaluator;
+        this.generator = generator;
+        this.estimateStuck = estimateStuck;
+        moves = Board.plyBuffers(maxDepth);
+        values = new long[maxDepth + 1][];
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static void main(String[] args) {
+        byte[] entries = Tablebase.solve(false);  //the tablebase itself takes races from here
+        int races = 0;
+        int bad = 0;
+        for (int id = 0; id < Board.CANONICAL_COUNT; id++) {
+            int board = Board.fromCanonicalId(id);
+            if (!isRace(board) || !legal(board)) continue;
+            for (int side = Board.WHITE; side <= Board.BLACK; side++) {
+                int i = Tablebase.index(board, side);
+                races++;
+                if (entries[i * 2] != result(board, side) || (entries[i * 2 + 1] & 0xFF) != plies(board, side)) bad++;
+            }
+        }
+        System.out.println("Race positions: " + races + ", " + (bad == 0 ? "all match the tablebase."
+                                                                       : bad + " differ from the tablebase."));
+    }
+
+    public static boolean isRace(int board) {
+        return Math.min(Board.w1(board), Board.w2(board)) > Math.max(Board.b1(board), Board.b2(board));
+    }
+
+    //no two pieces share a square short of home
+    static boolean legal(int board) {
+        int w1 = Board.w1(board), w2 = Board.w2(board), b1 = Board.b1(board), b2 = Board.b2(board);
+        return (w1 != w2 || w1 == 9) && (b1 != b2 || b1 == 0);
+    }
+
+    static int whiteMoves(int board) {
+        return 18 - Board.w1(board) - Board.w2(board);
+    }
+
+    static int blackMoves(int board) {
+        return Math.max(Board.b1(board), Board.b2(board));
+    }
+
+    //Tablebase.WHITE_WINS or BLACK_WINS, a race is never drawn
+    public static int result(int board, int side) {
+        int white = whiteMoves(board);
+        int black = blackMoves(board);
+        if (white == 0) return Tablebase.WHITE_WINS;
+        if (black == 0) return Tablebase.BLACK_WINS;
+        boolean whiteFirst = side == Board.WHITE ? white <= black : white < black;
+        return whiteFirst ? Tablebase.WHITE_WINS : Tablebase.BLACK_WINS;
+    }
+
+    //plies until the winner's last piece is home
+    public static int plies(int board, int side) {
+        int white = whiteMoves(board);
+        int black = blackMoves(board);
+        if (white == 0 || black == 0) return 0;
+        boolean whiteWins = result(board, side) == Tablebase.WHITE_WINS;
+        int moves = whiteWins ? white : black;
+        boolean winnerMoves = whiteWins == (side == Board.WHITE);
+        return winnerMoves ? 2 * moves - 1 : 2 * moves;
+    }
+
+    //the score of a race for side to move, as Negamax.search without pruning finds it with
+    //this evaluator, generator and stuck rule: the game ends at the first piece home and the
+    //board at depth 0 is estimated. only the race boards below it are visited, each once per
+    //side and depth, so it is exact within any window
+    public long value(int board, int depth, int side) {
+        if (depth == 0 || Board.isGameOver(board)) return Negamax.relative(evaluator.estimate(board), side);
+        long[] known = values[depth];
+        if (known == null) {
+            known = values[depth] = new long[Board.COUNT * 2];
+            Arrays.fill(known, UNKNOWN);
+        }
+        int i = Board.id(board) * 2 + side;
+        if (known[i] != UNKNOWN) return known[i];
+        int[] children = moves[depth];
+        int n = generator.moves(board, side, children);
+        long v = Long.MIN_VALUE;
+        if (n == 0) {
+            v = Negamax.relative(!estimateStuck ? (side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                                                : evaluator.estimate(board), side);
+        }
+        for (int k = 0; k < n; k++) v = Math.max(v, -value(children[k], depth - 1, 1 - side));
+        known[i] = v;
+        return v;
+    }
+}
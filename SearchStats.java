@@ -0,0 +1,134 @@
+import java.util.*;
+
+//what one search did. a detailed search (--stats) counts interior nodes, cutoffs per ply and
+//table probes as it goes; otherwise the searcher never touches this object and it is only
+//filled in at the end from the result and the leaf count every search keeps anyway
+public class SearchStats {
+
+    final String engine;
+    final long[] cutoffs;    //cutoffs by ply below the root, null unless detailed
+    int board;               //root
+    int bestBoard;
+    int score;
+    int depth;               //depth searched, or the deepest completed iteration
+    long nodes;              //boards visited below the root
+    long interior;           //boards whose children were searched
+    long leaves;             //boards given a static estimate: the positions evaluated
+    long ttCutoffs;          //boards answered by the transposition table
+    long ttProbes;
+    long ttHits;
+    long reSearches;         //windows that had to be searched again, see Negamax.child and aspirate
+    long reductions;         //late moves searched a ply short, see Negamax.child
+    long races;              //races scored by Race.value instead of searched, under --race
+    long reductionReSearches;
+    int maxPly;              //deepest ply reached
+    long elapsedNanos;
+
+    //summary only: result, leaves and time, plus nodes where the engine counts them anyway
+    public SearchStats(String engine) {
+        this.engine = engine;
+        this.cutoffs = null;
+    }
+
+    public SearchStats(String engine, int maxDepth) {
+        this.engine = engine;
+        this.cutoffs = new long[maxDepth + 1];
+    }
+
+    public boolean detailed() {
+        return cutoffs != null;
+    }
+
+    void interior(int ply) {
+        interior++;
+        if (ply > maxPly) maxPly = ply;
+    }
+
+    void leaf(int ply) {
+        if (ply > maxPly) maxPly = ply;
+    }
+
+    void cutoff(int ply) {
+        cutoffs[ply]++;
+    }
+
+    void probe(boolean hit) {
+        ttProbes++;
+        if (hit) ttHits++;
+    }
+
+    //folds in the counts of another searcher whose root was plyOffset plies below this one's
+    public synchronized void add(SearchStats other, int plyOffset) {
+        interior += other.interior;
+        ttCutoffs += other.ttCutoffs;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        maxPly = Math.max(maxPly, other.maxPly + plyOffset);
+        for (int i = 0; i < other.cutoffs.length && i + plyOffset < cutoffs.length; i++) {
+            cutoffs[i + plyOffset] += other.cutoffs[i];
+        }
+    }
+
+    //records the result. a detailed search counts its nodes itself, others pass what they have
+    public SearchStats finish(int board, int bestBoard, int score, int depth, long nodes, long leaves, long begin) {
+        this.board = board;
+        this.bestBoard = bestBoard;
+        this.score = score;
+        this.depth = depth;
+        this.leaves = leaves;
+        this.nodes = detailed() ? interior + leaves + ttCutoffs + races : nodes;
+        this.elapsedNanos = System.nanoTime() - begin;
+        return this;
+    }
+
+    //{best board, score, positions evaluated}, what analyze() has always returned
+    public int[] result() {
+        return new int[] {bestBoard, score, (int) leaves};
+    }
+
+    //b such that b^depth is the number of nodes searched, root included
+    public double branchingFactor() {
+        return depth == 0 || nodes == 0 ? 0 : Math.pow(nodes + 1, 1.0 / depth);
+    }
+
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    public double ttHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    //one line, so a log of many searches can be read back line by line
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"engine\":\"").append(engine).append('"');
+        sb.append(",\"board\":\"").append(Board.toString(board)).append('"');
+        sb.append(",\"best\":\"").append(Board.toString(bestBoard)).append('"');
+        sb.append(",\"score\":").append(score);
+        sb.append(",\"depth\":").append(depth);
+        sb.append(",\"nodes\":").append(nodes);
+        if (detailed()) sb.append(",\"interior\":").append(interior);
+        sb.append(",\"leaves\":").append(leaves);
+        if (reSearches > 0) sb.append(",\"reSearches\":").append(reSearches);
+        if (races > 0) sb.append(",\"races\":").append(races);
+        if (reductions > 0) {
+            sb.append(",\"reductions\":").append(reductions);
+            sb.append(",\"reductionReSearches\":").append(reductionReSearches);
+        }
+        if (detailed()) {
+            sb.append(",\"cutoffs\":").append(Arrays.toString(Arrays.copyOf(cutoffs, Math.max(depth, 1))).replace(" ", ""));
+            sb.append(",\"maxPly\":").append(maxPly);
+            if (ttProbes > 0) {
+                sb.append(",\"ttProbes\":").append(ttProbes);
+                sb.append(",\"ttHitRate\":").append(String.format(Locale.ROOT, "%.4f", ttHitRate()));
+                sb.append(",\"ttCutoffs\":").append(ttCutoffs);
+            }
+        }
+        sb.append(",\"ebf\":").append(String.format(Locale.ROOT, "%.3f", branchingFactor()));
+        sb.append(",\"elapsedMs\":").append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1e6));
+        sb.append(",\"nodesPerSecond\":").append(nodesPerSecond());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+//keeps one JVM, its JIT and one transposition table warm across many AlphaBeta searches.
+//requests are lines of "<board> <depth> <white|black>", from stdin or from any number of
+//clients with --port. they are searched concurrently on a shared pool and each client gets
+//its answers in request order: "<best board> <score> <stats json>". "stats" answers with
+//latency percentiles and "quit" ends the session. table entries only answer searches of their
+//own depth, so an answer does not depend on the requests before it
+public class Server {
+
+    static final int MAX_DEPTH = 200;
+    static final int LATENCIES = 1 << 16;  //percentiles cover the most recent requests only
+    static final Future<String> END = CompletableFuture.completedFuture(null);
+    static final Future<String> STATS = CompletableFuture.completedFuture(null);  //answered once the requests before it are
+
+    final ExecutorService pool;
+    final long[] latencies = new long[LATENCIES];  //nanoseconds from request read to answer ready
+    long requests = 0;
+
+    public Server(int workers) {
+        this.pool = Executors.newFixedThreadPool(workers);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = -1;
+        int ttSize = 1 << 20;
+        int workers = Runtime.getRuntime().availableProcessors();
+        TranspositionTable.Replace ttReplace = TranspositionTable.Replace.DEPTH;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--tt-size") && i + 1 < args.length) {
+                ttSize = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--tt-replace") && i + 1 < args.length) {
+                ttReplace = TranspositionTable.Replace.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--move-table")) {
+                Board.setMoveTable(MoveTable.build());
+            } else {
+                System.out.println("usage: java Server [--port <port>] [--tt-size <entries>]"
+                        + " [--tt-replace always|depth] [--workers <n>] [--move-table]");
+                return;
+            }
+        }
+        if (Board.table != null) System.err.println(Board.table.report());
+        AlphaBeta.tt = ttSize > 0 ? new TranspositionTable(ttSize, ttReplace) : null;
+
+        Server server = new Server(workers);
+        if (port < 0) {
+            server.serve(System.in, System.out);
+            server.pool.shutdown();
+        } else {
+            server.listen(port);
+        }
+    }
+
+    //accepts clients on the loopback interface until the process is stopped
+    void listen(int port) throws IOException {
+        try (ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on port " + socket.getLocalPort() + ".");
+            while (true) {
+                Socket client = socket.accept();
+                Thread t = new Thread(() -> {
+                    try (client) {
+                        serve(client.getInputStream(), client.getOutputStream());
+                    } catch (IOException e) {
+                        //the client went away, nothing to answer
+                    }
+                }, "client-" + client.getPort());
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+    }
+
+    //answers one client until it sends quit or closes its side
+    void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out)));
+        BlockingQueue<Future<String>> pending = new LinkedBlockingQueue<>();
+        Thread answers = new Thread(() -> write(pending, writer), "answers");
+        answers.start();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String request = line.trim();
+                if (request.isEmpty()) continue;
+                if (request.equals("quit")) break;
+                if (request.equals("stats")) {
+                    pending.add(STATS);
+                    continue;
+                }
+                long received = System.nanoTime();
+                pending.add(pool.submit(() -> answer(request, received)));
+            }
+        } finally {
+            pending.add(END);
+            try {
+                answers.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    //writes answers in request order, flushing whenever it has caught up with the searches
+    void write(BlockingQueue<Future<String>> pending, PrintWriter writer) {
+        try {
+            while (true) {
+                Future<String> next = pending.take();
+                if (next == END) break;
+                String line;
+                try {
+                    line = next == STATS ? stats() : next.get();
+                } catch (ExecutionException e) {
+                    line = "error: " + e.getCause();
+                }
+                writer.println(line);
+                if (pending.isEmpty()) writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.flush();
+    }
+
+    String answer(String request, long received) {
+        String[] parts = request.split("\\s+");
+        if (parts.length != 3 || !parts[0].matches("[0-9]{4}") || !parts[1].matches("[0-9]+")) {
+            return "error: expected <board> <depth> <white|black>";
+        }
+        int depth = Integer.parseInt(parts[1]);
+        if (depth > MAX_DEPTH) return "error: depth is at most " + MAX_DEPTH;
+        int side;
+        if (parts[2].equals("white")) side = Board.WHITE;
+        else if (parts[2].equals("black")) side = Board.BLACK;
+        else return "error: side is white or black";
+
+        SearchStats stats = AlphaBeta.search(Board.parse(parts[0]), depth, side, false);
+        record(System.nanoTime() - received);
+        return Board.toString(stats.bestBoard) + " " + stats.score + " " + stats.toJson();
+    }
+
+    synchronized void record(long nanos) {
+        latencies[(int) (requests++ & (LATENCIES - 1))] = nanos;
+    }
+
+    //latency percentiles in microseconds over the last LATENCIES requests, as one json line
+    synchronized String stats() {
+        int n = (int) Math.min(requests, LATENCIES);
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"requests\":").append(requests);
+        sb.append(",\"p50Us\":").append(percentile(sorted, 50));
+        sb.append(",\"p90Us\":").append(percentile(sorted, 90));
+        sb.append(",\"p99Us\":").append(percentile(sorted, 99));
+        sb.append(",\"maxUs\":").append(n == 0 ? 0 : sorted[n - 1] / 1000);
+        TranspositionTable tt = AlphaBeta.tt;
+        if (tt != null) {
+            long hits = tt.hits.sum(), probes = hits + tt.misses.sum();
+            sb.append(",\"ttHitRate\":").append(String.format(Locale.ROOT, "%.4f", probes == 0 ? 0 : (double) hits / probes));
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    //nearest rank
+    static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1000;
+    }
+}
@@ -0,0 +1,212 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+//exact solution of the game by retrograde analysis. a side has won once both of its pieces
+//are off the board (the +-100 boards of staticEst) and a side with no move passes. every
+//board of Board.COUNT is solved for both sides to move; positions never decided are draws.
+//only the canonical boards are kept, since a board and its white swap have the same result
+public class Tablebase {
+
+    static final int MAGIC = 0x4A4D5442;  //"JMTB"
+    static final int VERSION = 2;         //1 kept every board id
+    static final int HEADER = 12;         //magic, version, entry count
+
+    static final int DRAW = 0;
+    static final int WHITE_WINS = 1;
+    static final int BLACK_WINS = 2;
+
+    final ByteBuffer data;  //two bytes per entry after the header: result, plies to the end
+
+    Tablebase(ByteBuffer data) {
+        this.data = data;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("needs 1 arg: <tablebase file>");
+            return;
+        }
+        long start = System.nanoTime();
+        byte[] entries = solve();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        write(args[0], entries);
+
+        int[] totals = new int[3];
+        int longest = 0;
+        for (int i = 0; i < entries.length; i += 2) {
+            totals[entries[i]]++;
+            longest = Math.max(longest, entries[i + 1] & 0xFF);
+        }
+        System.out.println("Positions solved: " + entries.length / 2 + " in " + elapsed + " ms.");
+        System.out.println("White wins: " + totals[WHITE_WINS] + ", black wins: " + totals[BLACK_WINS]
+                + ", draws: " + totals[DRAW] + ", longest win: " + longest + " plies.");
+        System.out.println("Wrote " + (HEADER + entries.length) + " bytes to " + args[0] + ".");
+    }
+
+    static int index(int board, int side) {
+        return Board.canonicalId(board) * 2 + side;
+    }
+
+    static int node(int board, int side) {
+        return Board.id(board) * 2 + side;
+    }
+
+    static int winner(int board) {
+        if (Board.w1(board) == 9 && Board.w2(board) == 9) return WHITE_WINS;
+        if (Board.b1(board) == 0 && Board.b2(board) == 0) return BLACK_WINS;
+        return DRAW;
+    }
+
+    //returns result and distance for every canonical (board, side) index, two bytes each
+    public static byte[] solve() {
+        return solve(true);
+    }
+
+    //with races, a race is labelled from its closed form and never expanded; Race checks
+    //that closed form against a solve without them
+    static byte[] solve(boolean races) {
+        int nodes = Board.COUNT * 2;
+        int[] moves = new int[Board.MAX_MOVES];
+
+        //successors of each node, with a pass when the side to move is stuck
+        int[] succStart = new int[nodes + 1];
+        int[] succ = new int[nodes * Board.MAX_MOVES];
+        int edges = 0;
+        for (int node = 0; node < nodes; node++) {
+            succStart[node] = edges;
+            int board = Board.fromId(node / 2);
+            int side = node % 2;
+            if (winner(board) != DRAW || (races && Race.isRace(board) && Race.legal(board))) continue;
+            int n = side == Board.WHITE ? Board.whiteMoves(board, moves) : Board.blackMoves(board, moves);
+            if (n == 0) {
+                succ[edges++] = node(board, 1 - side);
+            }
+            for (int i = 0; i < n; i++) succ[edges++] = node(moves[i], 1 - side);
+        }
+        succStart[nodes] = edges;
+
+        //the same edges reversed
+        int[] predStart = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) predStart[succ[e] + 1]++;
+        for (int i = 0; i < nodes; i++) predStart[i + 1] += predStart[i];
+        int[] pred = new int[edges];
+        int[] fill = predStart.clone();
+        for (int node = 0; node < nodes; node++) {
+            for (int e = succStart[node]; e < succStart[node + 1]; e++) pred[fill[succ[e]]++] = node;
+        }
+
+        int[] result = new int[nodes];
+        int[] distance = new int[nodes];
+        int[] remaining = new int[nodes];  //children not yet known to win for the opponent
+        int[] queue = new int[nodes];
+        int head = 0, tail = 0;
+        long[] solved = new long[nodes];   //distance << 32 | node of each race, in distance order
+        int seeds = 0, next = 0;
+        for (int node = 0; node < nodes; node++) {
+            result[node] = -1;
+            remaining[node] = succStart[node + 1] - succStart[node];
+            int board = Board.fromId(node / 2);
+            int w = winner(board);
+            if (w != DRAW) {
+                result[node] = w;
+                queue[tail++] = node;
+            } else if (races && Race.isRace(board) && Race.legal(board)) {
+                result[node] = Race.result(board, node % 2);
+                distance[node] = Race.plies(board, node % 2);
+                solved[seeds++] = (long) distance[node] << 32 | node;
+            }
+        }
+        Arrays.sort(solved, 0, seeds);
+
+        //breadth first from the finished boards, so every node is labelled at its final distance.
+        //the races join the queue as it reaches their distance
+        while (head < tail || next < seeds) {
+            boolean race = next < seeds && (head == tail || (solved[next] >>> 32) <= distance[queue[head]]);
+            int node = race ? (int) solved[next++] : queue[head++];
+            int res = result[node];
+            for (int e = predStart[node]; e < predStart[node + 1]; e++) {
+                int p = pred[e];
+                if (result[p] != -1) continue;
+                boolean moverWins = (res == WHITE_WINS) == (p % 2 == Board.WHITE);
+                if (moverWins || --remaining[p] == 0) {
+                    result[p] = res;
+                    distance[p] = distance[node] + 1;
+                    queue[tail++] = p;
+                }
+            }
+        }
+
+        byte[] entries = new byte[Board.CANONICAL_COUNT * 4];
+        for (int node = 0; node < nodes; node++) {
+            int board = Board.fromId(node / 2);
+            if (board != Board.canonical(board)) continue;
+            if (distance[node] > 255) throw new IllegalStateException("Distance does not fit in a byte");
+            int i = index(board, node % 2);
+            entries[i * 2] = (byte) (result[node] == -1 ? DRAW : result[node]);
+            entries[i * 2 + 1] = (byte) distance[node];
+        }
+        return entries;
+    }
+
+    public static void write(String file, byte[] entries) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.length / 2);
+        out.write(entries);
+        out.close();
+    }
+
+    public static Tablebase load(String file) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        channel.close();  //the mapping stays valid after the channel is closed
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(8) != Board.CANONICAL_COUNT * 2) {
+            throw new IOException("Not a version " + VERSION + " tablebase: " + file);
+        }
+        return new Tablebase(data);
+    }
+
+    public int result(int board, int side) {
+        return data.get(HEADER + index(board, side) * 2);
+    }
+
+    public int distance(int board, int side) {
+        return data.get(HEADER + index(board, side) * 2 + 1) & 0xFF;
+    }
+
+    //the staticEst sentinel for a decided position, 0 for a draw
+    public int score(int board, int side) {
+        int res = result(board, side);
+        return res == WHITE_WINS ? 100 : res == BLACK_WINS ? -100 : 0;
+    }
+
+    //fastest win for the side to move, else a draw, else the slowest loss. the board itself
+    //is returned when the side has to pass or the game is already decided
+    public int bestMove(int board, int side, int[] moves) {
+        if (winner(board) != DRAW) return board;
+        int n = side == Board.WHITE ? Board.whiteMoves(board, moves) : Board.blackMoves(board, moves);
+        int win = side == Board.WHITE ? WHITE_WINS : BLACK_WINS;
+        int best = board;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int res = result(moves[i], 1 - side);
+            int dist = distance(moves[i], 1 - side);
+            int rank = res == win ? 1000 - dist : res == DRAW ? 0 : dist - 1000;
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    public String describe(int board, int side) {
+        int res = result(board, side);
+        if (res == DRAW) return "Tablebase: draw.";
+        return "Tablebase: " + (res == WHITE_WINS ? "white" : "black") + " wins in " + distance(board, side) + " plies.";
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+//plays full games between two engine configurations. a game starts from an opening with
+//white to move and ends when a side has both pieces home, as in the Tablebase; a side with
+//no move passes, and a game is drawn when neither side can move or after maxPlies. every
+//opening is played twice so each configuration gets both colours, and the games run
+//concurrently on a fixed pool of workers
+public class Tournament {
+
+    //an engine at a fixed depth, written <engine>:<depth>
+    static class Player {
+        final String engine;
+        final int depth;
+
+        Player(String spec) {
+            int colon = spec.indexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("expected <engine>:<depth>, got " + spec);
+            engine = spec.substring(0, colon);
+            depth = Integer.parseInt(spec.substring(colon + 1));
+            searcher();  //fails early on an unknown engine
+        }
+
+        //a fresh searcher per move, as the engines' own search() does
+        Negamax searcher() {
+            switch (engine) {
+                case "AlphaBeta": return AlphaBeta.searcher(depth, null);
+                case "MiniMax": return MiniMax.searcher(depth);
+                case "MiniMaxImproved": return MiniMaxImproved.searcher(depth);
+                default: throw new IllegalArgumentException("engine is AlphaBeta, MiniMax or MiniMaxImproved, got " + engine);
+            }
+        }
+
+        SearchStats move(int board, int side) {
+            return searcher().run(engine, board, depth, side, false);
+        }
+
+        public String toString() {
+            return engine + ":" + depth;
+        }
+    }
+
+    //one finished game. nodes and nanos hold one entry per move, white's then black's
+    static class Game {
+        int result;          //Tablebase.WHITE_WINS, BLACK_WINS or DRAW
+        int plies;
+        final long[][] nodes = new long[2][];
+        final long[][] nanos = new long[2][];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("needs 3 args: <openings.txt|all> <engine>:<depth> <engine>:<depth>"
+                    + " [--workers <n>] [--max-plies <plies>]");
+            return;
+        }
+        Player[] players = {new Player(args[1]), new Player(args[2])};
+        int workers = Runtime.getRuntime().availableProcessors();
+        int maxPlies = 200;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--max-plies") && i + 1 < args.length) {
+                maxPlies = Integer.parseInt(args[++i]);
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+        int[] openings = args[0].equals("all") ? allOpenings() : readOpenings(args[0]);
+
+        long begin = System.nanoTime();
+        List<Game> games = run(openings, players, workers, maxPlies);
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+
+        System.out.println("Games: " + games.size() + " from " + openings.length + " openings in " + elapsed + " ms.");
+        System.out.println(report(games, players));
+    }
+
+    //every opening with players[0] as white, then with players[1] as white. games[2k] and
+    //games[2k+1] are opening k
+    public static List<Game> run(int[] openings, Player[] players, int workers, int maxPlies) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Game>> futures = new ArrayList<>();
+            for (int opening : openings) {
+                futures.add(pool.submit(() -> play(opening, players[0], players[1], maxPlies)));
+                futures.add(pool.submit(() -> play(opening, players[1], players[0], maxPlies)));
+            }
+            List<Game> games = new ArrayList<>();
+            for (Future<Game> f : futures) games.add(f.get());
+            return games;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a game failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tournament interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    //nodes and nanos are indexed by colour, report() matches them back to the players
+    static Game play(int opening, Player white, Player black, int maxPlies) {
+        Game game = new Game();
+        long[][] nodes = {new long[maxPlies], new long[maxPlies]};
+        long[][] nanos = {new long[maxPlies], new long[maxPlies]};
+        int[] count = new int[2];
+        int[] children = new int[Board.MAX_MOVES];
+        int board = opening;
+        int side = Board.WHITE;
+        int passes = 0;
+        int result = Tablebase.winner(board);
+        int plies = 0;
+        while (result == Tablebase.DRAW && plies < maxPlies && passes < 2) {
+            int n = side == Board.WHITE ? Board.whiteMoves(board, children) : Board.blackMoves(board, children);
+            if (n == 0) {
+                passes++;
+            } else {
+                passes = 0;
+                long start = System.nanoTime();
+                SearchStats s = (side == Board.WHITE ? white : black).move(board, side);
+                nanos[side][count[side]] = System.nanoTime() - start;
+                nodes[side][count[side]++] = s.nodes;
+                board = move(s.bestBoard, children, n);
+                result = Tablebase.winner(board);
+            }
+            side = 1 - side;
+            plies++;
+        }
+        game.result = result;
+        game.plies = plies;
+        for (int c = 0; c < 2; c++) {
+            game.nodes[c] = Arrays.copyOf(nodes[c], count[c]);
+            game.nanos[c] = Arrays.copyOf(nanos[c], count[c]);
+        }
+        return game;
+    }
+
+    //the engine's choice when it is one of the n children. an engine whose scores all sit at
+    //or past its sentinel, as the quadratic evaluator's can, hands back the board itself; every
+    //move then looks equally bad, so play the first one, as the engines pick the first of a tie
+    static int move(int chosen, int[] children, int n) {
+        for (int i = 0; i < n; i++) {
+            if (children[i] == chosen) return chosen;
+        }
+        return children[0];
+    }
+
+    //wins, losses and draws of the first player by colour, then nodes per move and move
+    //latency percentiles in microseconds for each player
+    static String report(List<Game> games, Player[] players) {
+        int[][] score = new int[2][3];  //[first player's colour][win, loss, draw]
+        long[] moves = new long[2];
+        long[] nodes = new long[2];
+        long plies = 0;
+        for (int g = 0; g < games.size(); g++) {
+            Game game = games.get(g);
+            int colour = g % 2 == 0 ? Board.WHITE : Board.BLACK;  //the first player's colour
+            int win = colour == Board.WHITE ? Tablebase.WHITE_WINS : Tablebase.BLACK_WINS;
+            score[colour][game.result == Tablebase.DRAW ? 2 : game.result == win ? 0 : 1]++;
+            plies += game.plies;
+            for (int p = 0; p < 2; p++) {
+                int c = p == 0 ? colour : 1 - colour;
+                moves[p] += game.nodes[c].length;
+                for (long x : game.nodes[c]) nodes[p] += x;
+            }
+        }
+        long[][] nanos = {new long[(int) moves[0]], new long[(int) moves[1]]};
+        int[] filled = new int[2];
+        for (int g = 0; g < games.size(); g++) {
+            int colour = g % 2 == 0 ? Board.WHITE : Board.BLACK;
+            for (int p = 0; p < 2; p++) {
+                long[] x = games.get(g).nanos[p == 0 ? colour : 1 - colour];
+                System.arraycopy(x, 0, nanos[p], filled[p], x.length);
+                filled[p] += x.length;
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(players[0]).append(" against ").append(players[1]).append(": ")
+          .append(score[0][0] + score[1][0]).append(" wins, ")
+          .append(score[0][1] + score[1][1]).append(" losses, ")
+          .append(score[0][2] + score[1][2]).append(" draws (with white ")
+          .append(score[0][0]).append('/').append(score[0][1]).append('/').append(score[0][2]).append(", with black ")
+          .append(score[1][0]).append('/').append(score[1][1]).append('/').append(score[1][2]).append("), ")
+          .append(String.format(Locale.ROOT, "%.1f", games.isEmpty() ? 0 : (double) plies / games.size()))
+          .append(" plies per game.");
+        for (int p = 0; p < 2; p++) {
+            long[] sorted = nanos[p];
+            Arrays.sort(sorted);
+            sb.append('\n').append(players[p]).append(": ").append(moves[p]).append(" moves, ")
+              .append(String.format(Locale.ROOT, "%.1f", moves[p] == 0 ? 0 : (double) nodes[p] / moves[p]))
+              .append(" nodes per move, latency p50 ").append(Server.percentile(sorted, 50))
+              .append(" us, p90 ").append(Server.percentile(sorted, 90))
+              .append(" us, p99 ").append(Server.percentile(sorted, 99))
+              .append(" us, max ").append(sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000).append(" us.");
+        }
+        return sb.toString();
+    }
+
+    static int[] readOpenings(String file) throws IOException {
+        return Files.readAllLines(Paths.get(file)).stream()
+                .map(String::trim).filter(s -> !s.isEmpty()).mapToInt(Board::parse).toArray();
+    }
+
+    //every canonical board with no piece home yet and the four pieces on four squares
+    static int[] allOpenings() {
+        List<Integer> boards = new ArrayList<>();
+        for (int id = 0; id < Board.CANONICAL_COUNT; id++) {
+            int board = Board.fromCanonicalId(id);
+            int w1 = Board.w1(board), w2 = Board.w2(board), b1 = Board.b1(board), b2 = Board.b2(board);
+            boolean distinct = w1 != w2 && w1 != b1 && w1 != b2 && w2 != b1 && w2 != b2 && b1 != b2;
+            if (distinct && !Board.isGameOver(board)) boards.add(board);
+        }
+        return boards.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
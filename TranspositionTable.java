@@ -0,0 +1,91 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+//fixed-size table of search results keyed on board plus side to move, safe to share between
+//threads without locks. each slot is two longs: the packed entry and the entry xor its key.
+//a reader only trusts an entry whose xor gives back the key it asked for, so a slot torn by
+//two writers racing reads as a miss instead of a wrong score
+public class TranspositionTable {
+
+    static final int EXACT = 0;  //score is the true value at that depth
+    static final int LOWER = 1;  //search failed high, true value >= score
+    static final int UPPER = 2;  //search failed low, true value <= score
+
+    static final long MISS = 0;  //probe result for an empty or foreign slot, never a stored entry
+
+    enum Replace { ALWAYS, DEPTH }  //DEPTH keeps the deeper entry when two boards collide
+
+    final int mask;
+    final int shift;  //64 - log2(size), keeps the top bits of the slot hash
+    final Replace replace;
+    final long[] entries;  //score | best move << 32 | depth << 48 | (bound + 1) << 60
+    final long[] checks;   //entry ^ (key + 1), so an empty slot matches no key
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder cutoffs = new LongAdder();
+
+    //size is rounded up to a power of two
+    public TranspositionTable(int size, Replace replace) {
+        int n = 1;
+        while (n < size) n <<= 1;
+        this.mask = n - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(n);
+        this.replace = replace;
+        this.entries = new long[n];
+        this.checks = new long[n];
+    }
+
+    //a board and its white swap share a key, see Board.canonical
+    public static int key(int board, int side) {
+        return (side << 16) | Board.canonical(board);
+    }
+
+    //the top bits of a 64-bit product, so every bit of the slot depends on the whole key
+    private int slot(int key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+    }
+
+    public static int score(long entry) { return (int) entry; }
+    public static int bestMove(long entry) { return (int) (entry >>> 32) & 0xFFFF; }
+    public static int depth(long entry) { return (int) (entry >>> 48) & 0xFFF; }
+    public static int bound(long entry) { return (int) (entry >>> 60) - 1; }
+
+    //returns the entry stored for key, or MISS
+    public long probe(int key) {
+        int i = slot(key);
+        long entry = entries[i];
+        if ((entry ^ checks[i]) == key + 1) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    public void store(int key, int depth, int score, int bound, int bestMove) {
+        int i = slot(key);
+        long old = entries[i];
+        if (replace == Replace.DEPTH && old != MISS && (old ^ checks[i]) != key + 1 && depth(old) > depth) return;
+        long entry = (score & 0xFFFFFFFFL) | (long) bestMove << 32 | (long) Math.min(depth, 0xFFF) << 48
+                   | (long) (bound + 1) << 60;
+        entries[i] = entry;
+        checks[i] = entry ^ (key + 1);
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+        Arrays.fill(checks, 0);
+        hits.reset();
+        misses.reset();
+        cutoffs.reset();
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public String report() {
+        return "Transposition table: " + hits.sum() + " hits, " + misses.sum() + " misses, " + cutoffs.sum() + " cutoffs.";
+    }
+}
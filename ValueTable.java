@@ -0,0 +1,153 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+//the depth-limited minimax value of every board, for both sides to move and every depth up
+//to a maximum, computed bottom up one depth at a time: a board's value at depth d only needs
+//its children's values at depth d - 1. jumps send pieces back, so the game graph has cycles,
+//but the depth layers do not. a root query then costs one lookup per move and returns what
+//MiniMax, AlphaBeta (linear) or MiniMaxImproved (quadratic) would print at that depth. only
+//canonical boards are stored, a board and its white swap have the same value
+public class ValueTable {
+
+    static final int MAGIC = 0x4A4D5654;  //"JMVT"
+    static final int VERSION = 2;         //1 kept every board id
+    static final int HEADER = 20;         //magic, version, evaluator, max depth, boards
+
+    static final int LINEAR = 0;     //Board.staticEst, a side with no move is estimated
+    static final int QUADRATIC = 1;  //MiniMaxImproved.staticEst, a side with no move scores MIN/MAX_VALUE
+
+    final IntBuffer values;  //[depth][Board.canonicalId(board) * 2 + side]
+    final int evaluator;
+    final int maxDepth;
+
+    ValueTable(IntBuffer values, int evaluator, int maxDepth) {
+        this.values = values;
+        this.evaluator = evaluator;
+        this.maxDepth = maxDepth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("needs 2 args: <value table file> <maxDepth> [--evaluator linear|quadratic]");
+            return;
+        }
+        int maxDepth = Integer.parseInt(args[1]);
+        int evaluator = LINEAR;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--evaluator") && i + 1 < args.length) {
+                evaluator = args[++i].equals("quadratic") ? QUADRATIC : LINEAR;
+            } else {
+                System.out.println("unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        int[] values = solve(maxDepth, evaluator);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        write(args[0], values, evaluator, maxDepth);
+        System.out.println("Depths 0-" + maxDepth + " solved for " + Board.CANONICAL_COUNT + " canonical boards in "
+                + elapsed + " ms.");
+        System.out.println("Wrote " + (HEADER + 4L * values.length) + " bytes to " + args[0] + ".");
+    }
+
+    static int estimate(int board, int evaluator) {
+        return evaluator == LINEAR ? Board.staticEst(board) : MiniMaxImproved.staticEst(board);
+    }
+
+    //every depth row in order, each row Board.CANONICAL_COUNT * 2 values
+    public static int[] solve(int maxDepth, int evaluator) {
+        int row = Board.CANONICAL_COUNT * 2;
+        int[] values = new int[(maxDepth + 1) * row];
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int i = 0; i < row; i++) values[i] = estimate(Board.fromCanonicalId(i / 2), evaluator);
+
+        for (int d = 1; d <= maxDepth; d++) {
+            int base = d * row;
+            int below = base - row;
+            for (int i = 0; i < row; i++) {
+                int board = Board.fromCanonicalId(i / 2);
+                int side = i % 2;
+                if (Board.isGameOver(board)) {
+                    values[base + i] = values[i];
+                    continue;
+                }
+                int n = side == Board.WHITE ? Board.whiteMoves(board, moves) : Board.blackMoves(board, moves);
+                if (n == 0) {
+                    values[base + i] = evaluator == LINEAR ? values[i]
+                                     : side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+                    continue;
+                }
+                int v = side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+                for (int k = 0; k < n; k++) {
+                    int child = values[below + Board.canonicalId(moves[k]) * 2 + 1 - side];
+                    v = side == Board.WHITE ? Math.max(v, child) : Math.min(v, child);
+                }
+                values[base + i] = v;
+            }
+        }
+        return values;
+    }
+
+    public static void write(String file, int[] values, int evaluator, int maxDepth) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(evaluator);
+        out.writeInt(maxDepth);
+        out.writeInt(Board.CANONICAL_COUNT);
+        for (int v : values) out.writeInt(v);
+        out.close();
+    }
+
+    public static ValueTable load(String file) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        long size = channel.size();
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        channel.close();  //the mapping stays valid after the channel is closed
+        int maxDepth = size < HEADER ? -1 : data.getInt(12);
+        if (size < HEADER || data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(16) != Board.CANONICAL_COUNT
+                || size != HEADER + 4L * (maxDepth + 1) * Board.CANONICAL_COUNT * 2) {
+            throw new IOException("Not a version " + VERSION + " value table: " + file);
+        }
+        return new ValueTable(data.position(HEADER).slice().asIntBuffer(), data.getInt(8), maxDepth);
+    }
+
+    //the same, refusing a table built for the other evaluator
+    public static ValueTable load(String file, int evaluator) throws IOException {
+        ValueTable table = load(file);
+        if (table.evaluator != evaluator) {
+            throw new IOException("Value table " + file + " was built for the other evaluator");
+        }
+        return table;
+    }
+
+    //the value of board below the root, as Negamax.value returns it
+    public int value(int board, int side, int depth) {
+        return values.get(depth * Board.CANONICAL_COUNT * 2 + Board.canonicalId(board) * 2 + side);
+    }
+
+    //what a search from board would return as {best board, score}: the first child with the
+    //best value, or the board itself with MIN/MAX_VALUE when side has no move
+    public int[] search(int board, int side, int depth, int[] moves) {
+        if (depth > maxDepth) throw new IllegalArgumentException("Value table only goes to depth " + maxDepth);
+        if (depth == 0) return new int[] {board, estimate(board, evaluator)};
+        int n = side == Board.WHITE ? Board.whiteMoves(board, moves) : Board.blackMoves(board, moves);
+        int best = board;
+        int score = side == Board.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int k = 0; k < n; k++) {
+            int v = value(moves[k], 1 - side, depth - 1);
+            if (side == Board.WHITE ? v > score : v < score) {
+                score = v;
+                best = moves[k];
+            }
+        }
+        return new int[] {best, score};
+    }
+
+    public String describe() {
+        return "Value table: depths 0-" + maxDepth + ", " + (evaluator == LINEAR ? "linear" : "quadratic") + " evaluator.";
+    }
+}
@@ -0,0 +1,19 @@
+package jumpy.bench;
+
+//fixed set of starting boards shared by every benchmark. all are undecided, have moves for
+//white, and give searches of a few hundred to a few thousand positions at depth 16
+final class Corpus {
+
+    static final String[] BOARDS = {
+        "0189", "1278", "0178", "1289", "0156", "0167", "1368",
+        "2378", "3069", "0279", "2089", "0548", "0746", "3086"
+    };
+
+    private Corpus() {}
+
+    static int[] packed() {
+        int[] boards = new int[BOARDS.length];
+        for (int i = 0; i < boards.length; i++) boards[i] = Engines.parse(BOARDS[i]);
+        return boards;
+    }
+}
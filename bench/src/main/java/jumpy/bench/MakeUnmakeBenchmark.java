@@ -0,0 +1,64 @@
+package jumpy.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+//the same searches as SearchBenchmark, on the Negamax core (a new board per child, the
+//estimate recomputed at every leaf) or on MakeUnmake (one board changed in place, the
+//estimate kept as a running sum). leaves is the positions evaluated per millisecond.
+//throughput only, an aux counter has no meaning as an average time
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MakeUnmakeBenchmark {
+
+    @Param({"AlphaBeta", "MiniMax", "MiniMaxImproved"})
+    public String engine;
+
+    @Param({"8", "16"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean makeUnmake;
+
+    int[] boards;
+    MethodHandle analyze;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Leaves {
+        public long leaves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            leaves = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Engines.useMakeUnmake(makeUnmake);
+        boards = Corpus.packed();
+        analyze = Engines.engine(engine);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Engines.useMakeUnmake(false);
+    }
+
+    @Benchmark
+    public void search(Leaves counter, Blackhole bh) throws Throwable {
+        for (int board : boards) {
+            int[] result = (int[]) analyze.invokeExact(board, depth);
+            counter.leaves += result[2];
+            bh.consume(result);
+        }
+    }
+}
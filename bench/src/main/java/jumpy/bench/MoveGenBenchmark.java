@@ -0,0 +1,49 @@
+package jumpy.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+//one call generates the children of every corpus board for one side, either with the
+//generators or read from the precomputed MoveTable
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenBenchmark {
+
+    @Param({"false", "true"})
+    public boolean moveTable;
+
+    int[] boards;
+    int[] moves;
+
+    @Setup
+    public void setup() {
+        Engines.useMoveTable(moveTable);
+        boards = Corpus.packed();
+        moves = new int[2];
+    }
+
+    @Benchmark
+    public int whiteMoves() throws Throwable {
+        int total = 0;
+        for (int board : boards) {
+            int n = (int) Engines.WHITE_MOVES.invokeExact(board, moves);
+            total += n == 0 ? 0 : moves[0] + n;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int blackMoves() throws Throwable {
+        int total = 0;
+        for (int board : boards) {
+            int n = (int) Engines.BLACK_MOVES.invokeExact(board, moves);
+            total += n == 0 ? 0 : moves[0] + n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+package jumpy.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+//one call runs a full fixed-depth search from every corpus board through the engine's
+//analyze(), the same entry point batch mode uses
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"AlphaBeta", "MiniMax", "MiniMaxImproved", "MiniMaxBlack"})
+    public String engine;
+
+    @Param({"4", "8", "16"})
+    public int depth;
+
+    int[] boards;
+    MethodHandle analyze;
+
+    @Setup
+    public void setup() {
+        boards = Corpus.packed();
+        analyze = Engines.engine(engine);
+    }
+
+    @Benchmark
+    public void search(Blackhole bh) throws Throwable {
+        for (int board : boards) bh.consume((int[]) analyze.invokeExact(board, depth));
+    }
+}
@@ -0,0 +1,37 @@
+package jumpy.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+//one call evaluates every corpus board. linear is Board.staticEst (AlphaBeta and MiniMax),
+//quadratic is the one MiniMaxImproved and MiniMaxBlack use
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StaticEstBenchmark {
+
+    int[] boards;
+
+    @Setup
+    public void setup() {
+        boards = Corpus.packed();
+    }
+
+    @Benchmark
+    public int linear() throws Throwable {
+        int total = 0;
+        for (int board : boards) total += (int) Engines.LINEAR_EST.invokeExact(board);
+        return total;
+    }
+
+    @Benchmark
+    public int quadratic() throws Throwable {
+        int total = 0;
+        for (int board : boards) total += (int) Engines.QUADRATIC_EST.invokeExact(board);
+        return total;
+    }
+}
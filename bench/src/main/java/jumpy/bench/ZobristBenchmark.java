@@ -0,0 +1,60 @@
+package jumpy.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+//a LineBoard search from the start position with no keys, with each child's key carried
+//from its parent, or with every node hashed from scratch. nodes is the nodes searched per
+//millisecond, so the drop from none is the hashing cost per node
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZobristBenchmark {
+
+    @Param({"10:2:12", "64:8:16"})
+    public String game;       //<squares>:<pieces>:<depth>
+
+    @Param({"none", "incremental", "scratch"})
+    public String keys;
+
+    int squares;
+    int pieces;
+    int depth;
+    int hashing;              //LineBoard.Search.NO_KEYS, INCREMENTAL or SCRATCH
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        String[] parts = game.split(":");
+        squares = Integer.parseInt(parts[0]);
+        pieces = Integer.parseInt(parts[1]);
+        depth = Integer.parseInt(parts[2]);
+        switch (keys) {
+            case "none": hashing = 0; break;
+            case "incremental": hashing = 1; break;
+            case "scratch": hashing = 2; break;
+            default: throw new IllegalArgumentException("keys are none, incremental or scratch, got " + keys);
+        }
+    }
+
+    @Benchmark
+    public long search(Nodes counter) throws Throwable {
+        long nodes = (long) Engines.LINE_BOARD.invokeExact(squares, pieces, depth, hashing);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}